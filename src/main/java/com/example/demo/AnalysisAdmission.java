@@ -0,0 +1,76 @@
+package com.example.demo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many analyses run at once to a multiple of the available cores, so a burst of
+ * large grammars queues briefly instead of starving the request threads. An analysis that
+ * cannot get a permit within the configured wait is rejected.
+ */
+@Component
+public class AnalysisAdmission {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Duration retryAfter;
+    private final LongAdder rejected = new LongAdder();
+
+    public AnalysisAdmission(@Value("${grammar.admission.permits-per-core:2}") int permitsPerCore,
+                             @Value("${grammar.admission.max-wait:100ms}") Duration maxWait,
+                             @Value("${grammar.admission.retry-after:1s}") Duration retryAfter) {
+        this.maxConcurrent = Math.max(1, permitsPerCore * Runtime.getRuntime().availableProcessors());
+        this.permits = new Semaphore(maxConcurrent, true); // Fair, so queued analyses run in arrival order
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryAfter = retryAfter;
+    }
+
+    // Runs the analysis once a permit is free, or throws AnalysisRejectedException after the maximum wait
+    public <T> T admit(Supplier<T> analysis) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new AnalysisRejectedException(retryAfter);
+        }
+        try {
+            return analysis.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Runs the analysis once a permit is free, however long that takes; for work that is queued already
+    public <T> T admitWaiting(Supplier<T> analysis) {
+        permits.acquireUninterruptibly();
+        try {
+            return analysis.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+}
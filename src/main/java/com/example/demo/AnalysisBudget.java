@@ -0,0 +1,72 @@
+package com.example.demo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Size and time limits for one analysis, so a single pathological grammar cannot hold a
+ * thread for long. A limit of zero disables it.
+ */
+@Component
+public class AnalysisBudget {
+
+    public static final AnalysisBudget UNLIMITED = new AnalysisBudget(0, 0, 0, Duration.ZERO);
+
+    private final int maxRules;
+    private final int maxSymbols;
+    private final int maxProductions;
+    private final Duration maxTime;
+
+    public AnalysisBudget(@Value("${grammar.budget.max-rules:500}") int maxRules,
+                          @Value("${grammar.budget.max-symbols:2000}") int maxSymbols,
+                          @Value("${grammar.budget.max-productions:5000}") int maxProductions,
+                          @Value("${grammar.budget.max-time:5s}") Duration maxTime) {
+        this.maxRules = maxRules;
+        this.maxSymbols = maxSymbols;
+        this.maxProductions = maxProductions;
+        this.maxTime = maxTime;
+    }
+
+    // Maximum number of rules (nonterminals with productions)
+    public int maxRules() {
+        return maxRules;
+    }
+
+    // Maximum number of distinct nonterminals and terminals
+    public int maxSymbols() {
+        return maxSymbols;
+    }
+
+    // Maximum number of alternatives over all rules; the conflict checks compare them pairwise
+    public int maxProductions() {
+        return maxProductions;
+    }
+
+    // Maximum wall-clock time of one analysis
+    public Duration maxTime() {
+        return maxTime;
+    }
+
+    void checkRules(int rules) {
+        if (maxRules > 0 && rules > maxRules) {
+            throw new AnalysisBudgetExceededException("rules", maxRules,
+                    "The grammar has " + rules + " rules, the limit is " + maxRules + ".");
+        }
+    }
+
+    void checkSymbols(int symbols) {
+        if (maxSymbols > 0 && symbols > maxSymbols) {
+            throw new AnalysisBudgetExceededException("symbols", maxSymbols,
+                    "The grammar uses " + symbols + " symbols, the limit is " + maxSymbols + ".");
+        }
+    }
+
+    void checkProductions(int productions) {
+        if (maxProductions > 0 && productions > maxProductions) {
+            throw new AnalysisBudgetExceededException("productions", maxProductions,
+                    "The grammar has " + productions + " productions, the limit is " + maxProductions + ".");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thrown when a grammar exceeds one of the limits of its {@link AnalysisBudget}: too many
+ * rules, symbols or productions, or an analysis running past its time limit.
+ */
+public class AnalysisBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String limit;
+    private final long allowed;
+
+    public AnalysisBudgetExceededException(String limit, long allowed, String message) {
+        super(message);
+        this.limit = limit;
+        this.allowed = allowed;
+    }
+
+    // Which limit was exceeded: "rules", "symbols", "productions" or "time"
+    public String getLimit() {
+        return limit;
+    }
+
+    // The configured value of that limit (milliseconds for "time")
+    public long getAllowed() {
+        return allowed;
+    }
+
+    // Error body shared by the endpoints
+    public Map<String, Object> toResponse() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "error");
+        response.put("error", "budget_exceeded");
+        response.put("limit", limit);
+        response.put("allowed", allowed);
+        response.put("message", getMessage());
+        return response;
+    }
+}
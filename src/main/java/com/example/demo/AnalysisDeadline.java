@@ -0,0 +1,36 @@
+package com.example.demo;
+
+import java.time.Duration;
+
+/**
+ * Wall-clock limit of the analysis in progress. The long-running loops (closures, the FB join,
+ * the First/Follow worklists) call {@link #check()} as they go, so an analysis that runs over
+ * its budget stops at the next checkpoint instead of pinning its thread.
+ */
+final class AnalysisDeadline {
+
+    static final AnalysisDeadline NONE = new AnalysisDeadline();
+
+    private Duration limit = Duration.ZERO;
+    private long expiresAt;
+    private boolean active;
+
+    // Starts the clock; a zero or negative limit means no deadline
+    void start(Duration limit) {
+        this.limit = limit;
+        this.expiresAt = System.nanoTime() + limit.toNanos();
+        this.active = limit.compareTo(Duration.ZERO) > 0;
+    }
+
+    void clear() {
+        active = false;
+    }
+
+    void check() {
+        if (active && System.nanoTime() - expiresAt > 0) {
+            active = false;
+            throw new AnalysisBudgetExceededException("time", limit.toMillis(),
+                    "The analysis took longer than " + limit.toMillis() + " ms.");
+        }
+    }
+}
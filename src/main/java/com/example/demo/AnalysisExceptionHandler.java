@@ -0,0 +1,35 @@
+package com.example.demo;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Error responses for analyses that could not run, shared by the stateless and the session
+ * endpoints.
+ */
+@RestControllerAdvice
+public class AnalysisExceptionHandler {
+
+    // Too many analyses in progress: 429 with a Retry-After hint instead of queueing without bound
+    @ExceptionHandler(AnalysisRejectedException.class)
+    public ResponseEntity<Map<String, Object>> analysisRejected(AnalysisRejectedException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(response);
+    }
+
+    // A grammar too large or too slow to analyze within the configured budget
+    @ExceptionHandler(AnalysisBudgetExceededException.class)
+    public ResponseEntity<Map<String, Object>> budgetExceeded(AnalysisBudgetExceededException e) {
+        return ResponseEntity.unprocessableEntity().body(e.toResponse());
+    }
+}
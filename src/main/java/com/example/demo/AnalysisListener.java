@@ -0,0 +1,11 @@
+package com.example.demo;
+
+/**
+ * Receives the steps of an analysis as they complete, e.g. to stream them to a client.
+ */
+@FunctionalInterface
+public interface AnalysisListener {
+
+    // The partial result holds every requested step completed so far, this one included
+    void stepCompleted(AnalysisStep step, GrammarAnalysisResult partial);
+}
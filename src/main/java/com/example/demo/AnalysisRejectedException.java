@@ -0,0 +1,23 @@
+package com.example.demo;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an analysis cannot be admitted because the configured number of analyses is
+ * already running; the client should retry after the given delay.
+ */
+public class AnalysisRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public AnalysisRejectedException(Duration retryAfter) {
+        super("Too many analyses in progress, retry in " + retryAfter.toSeconds() + "s.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The stages of the analysis and what each one is computed from. Clients can ask for a
+ * subset of the steps; only those and the steps they depend on are run. Declaration order
+ * is a valid execution order.
+ */
+public enum AnalysisStep {
+    NULLABLE,               // Step 1
+    BDW(NULLABLE),          // Step 2
+    BW(BDW),                // Step 3
+    FIRST(NULLABLE),        // Steps 4 and 5
+    FDB(NULLABLE),          // Step 6
+    DEO(NULLABLE),          // Step 7
+    EO(DEO),                // Step 8
+    FB(EO, FDB, BW),        // Steps 9 and 10
+    FOLLOW(FB),             // Step 11, read off the FB pairs with the end mark
+    SELECT(FIRST, FOLLOW),  // Step 12
+    TABLE(SELECT);          // Step 13, the LL(1) parse table
+
+    public static final Set<AnalysisStep> ALL = Collections.unmodifiableSet(EnumSet.allOf(AnalysisStep.class));
+
+    private final List<AnalysisStep> dependencies;
+
+    AnalysisStep(AnalysisStep... dependencies) {
+        this.dependencies = List.of(dependencies);
+    }
+
+    // Name used in the steps parameter and the timings, e.g. "follow"
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // The given steps plus every step they depend on, directly or not
+    public static EnumSet<AnalysisStep> withDependencies(Collection<AnalysisStep> steps) {
+        EnumSet<AnalysisStep> required = EnumSet.noneOf(AnalysisStep.class);
+        for (AnalysisStep step : steps) {
+            step.addTo(required);
+        }
+        return required;
+    }
+
+    private void addTo(EnumSet<AnalysisStep> required) {
+        if (required.add(this)) {
+            for (AnalysisStep dependency : dependencies) {
+                dependency.addTo(required);
+            }
+        }
+    }
+
+    // Parses a comma-separated list such as "first,follow,select"; null or blank means every step
+    public static EnumSet<AnalysisStep> parse(String steps) {
+        EnumSet<AnalysisStep> parsed = EnumSet.noneOf(AnalysisStep.class);
+        if (steps == null || steps.isBlank()) {
+            return EnumSet.allOf(AnalysisStep.class);
+        }
+        for (String step : steps.split(",")) {
+            if (!step.isBlank()) {
+                try {
+                    parsed.add(valueOf(step.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown analysis step: " + step.trim(), e);
+                }
+            }
+        }
+        return parsed.isEmpty() ? EnumSet.allOf(AnalysisStep.class) : parsed;
+    }
+
+    // Stable text form of a selection, e.g. for cache keys
+    public static String toKey(Set<AnalysisStep> steps) {
+        return steps.stream().sorted().map(AnalysisStep::key).collect(Collectors.joining(","));
+    }
+}
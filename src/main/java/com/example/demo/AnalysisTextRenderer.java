@@ -0,0 +1,292 @@
+package com.example.demo;
+
+import com.example.demo.GrammarAnalysisResult.Closure;
+import com.example.demo.GrammarAnalysisResult.NullableRule;
+import com.example.demo.GrammarAnalysisResult.Pair;
+import com.example.demo.GrammarAnalysisResult.ProductionSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders a {@link GrammarAnalysisResult} as the step-by-step text report (Steps 1 to 13).
+ * Only clients that ask for {@code format=text} pay for the formatting, and only the steps
+ * present in the result are rendered.
+ */
+final class AnalysisTextRenderer {
+
+    private static final int COLUMN_WIDTH = 15;
+
+    private AnalysisTextRenderer() {
+    }
+
+    static String render(GrammarAnalysisResult result) {
+        if (!result.isSuccess()) {
+            GrammarAnalysisResult.SyntaxError error = result.syntaxError();
+            if (error != null) {
+                return result.message() + "\nLine " + error.line() + ", column " + error.column() + ": " + error.reason();
+            }
+            return result.conflictDetails() == null ? result.message() : renderConflicts(result);
+        }
+        StringBuilder output = new StringBuilder();
+
+        if (result.nullableRules() != null) {
+            appendNullable(output, result.nullableRules());
+        }
+        if (result.bdw() != null) {
+            output.append("\nStep 2: BDW Relationships\n");
+            appendPairs(output, result.bdw(), "BDW");
+        }
+        if (result.bw() != null) {
+            appendBW(output, result.bw());
+        }
+        if (result.first() != null) {
+            appendFirst(output, result.first(), result.firstOfRightSide());
+        }
+        if (result.fdb() != null) {
+            output.append("\nStep 6: Followed Directly By (FDB) Relationships\n");
+            appendPairs(output, result.fdb(), "FDB");
+        }
+        if (result.deo() != null) {
+            output.append("\nStep 7: Direct End Of (DEO) Relationships\n");
+            appendPairs(output, result.deo(), "DEO");
+        }
+        if (result.eo() != null) {
+            appendEO(output, result.eo());
+        }
+        // The Step 9 displays need all three relations FB is joined from
+        if (result.eo() != null && result.fdb() != null && result.bw() != null) {
+            appendJoinInputs(output, closed(result.eo()), result.fdb(), closed(result.bw()));
+        }
+        if (result.fb() != null) {
+            appendFB(output, result.fb());
+        }
+        if (result.follow() != null) {
+            output.append("\nStep 11: Compute Follow Set for Nullable Nonterminals\n");
+            for (Map.Entry<String, List<String>> follow : result.follow().entrySet()) {
+                output.append("Fol(").append(follow.getKey()).append(") = {");
+                appendSymbols(output, follow.getValue());
+                output.append("}\n");
+            }
+        }
+        if (result.select() != null) {
+            appendSelect(output, result.select());
+        }
+        if (result.table() != null) {
+            appendTable(output, result.table());
+        }
+
+        return output.toString();
+    }
+
+    // Step 1: Nullable rules and nonterminals
+    private static void appendNullable(StringBuilder output, List<NullableRule> nullableRules) {
+        output.append("\nStep 1: Nullable Rules and Nonterminals\n");
+        output.append("Nullable Rules:\n");
+        for (NullableRule rule : nullableRules) {
+            output.append(rule.nonterminal()).append(" → ").append(rule.production()).append("\n");
+        }
+        output.append("\nNullable Nonterminals:\n");
+        for (NullableRule rule : nullableRules) {
+            output.append(rule.nonterminal()).append("\n");
+        }
+    }
+
+    // Step 3: BW relationships by category
+    private static void appendBW(StringBuilder output, Closure bw) {
+        output.append("\nStep 3: BW Relationships\n");
+        output.append("From BDW Relationships:\n");
+        appendPairs(output, bw.direct(), "BW");
+        output.append("\nTransitive Relationships:\n");
+        appendPairs(output, bw.transitive(), "BW");
+        output.append("\nReflexive Relationships:\n");
+        appendPairs(output, bw.reflexive(), "BW");
+    }
+
+    // Steps 4 and 5: First sets, and First of each right side
+    private static void appendFirst(StringBuilder output, Map<String, List<String>> first,
+                                    List<ProductionSet> firstOfRightSide) {
+        output.append("\nStep 4: First Sets\n");
+        for (Map.Entry<String, List<String>> entry : first.entrySet()) {
+            output.append("First(").append(entry.getKey()).append(") = {");
+            appendSymbols(output, entry.getValue());
+            output.append("}\n");
+        }
+
+        output.append("\nStep 5: Compute First of Right Side\n");
+        for (ProductionSet production : firstOfRightSide) {
+            output.append("First(").append(production.production()).append(") = {");
+            appendFirst(output, production);
+            output.append("}\n");
+        }
+    }
+
+    // Step 8: EO relationships by category
+    private static void appendEO(StringBuilder output, Closure eo) {
+        output.append("\nStep 8: EO Relationships");
+        output.append("\nFrom DEO Relationships:\n");
+        appendPairsOrNone(output, eo.direct(), "EO", "No DEO relationships found.\n");
+        output.append("\nTransitive Relationships:\n");
+        appendPairsOrNone(output, eo.transitive(), "EO", "No transitive relationships found.\n");
+        output.append("\nReflexive Relationships:\n");
+        appendPairsOrNone(output, eo.reflexive(), "EO", "No reflexive relationships found.\n");
+    }
+
+    // Step 9, first and second part: the relations FB is joined from
+    private static void appendJoinInputs(StringBuilder output, List<Pair> eo, List<Pair> fdb, List<Pair> bw) {
+        output.append("\nStep 9: First Part - Display Relationships\n");
+        output.append("\nFrom EO Relationships:\n");
+        appendPairsOrNone(output, eo, "EO", "No EO relationships found.\n");
+        output.append("\nFrom FDB Relationships:\n");
+        appendPairsOrNone(output, fdb, "FDB", "No FDB relationships found.\n");
+        output.append("\nFrom BW Relationships:\n");
+        appendPairsOrNone(output, bw, "BW", "No BW relationships found.\n");
+
+        output.append("\nStep 9: Second Part - Display Filtered Relationships\n");
+        appendJoinColumns(output, eo, fdb, bw);
+    }
+
+    // Step 9 final part and Step 10: FB without, then with the end mark
+    private static void appendFB(StringBuilder output, List<Pair> fb) {
+        output.append("\nStep 9: Final FB Relationships\n");
+        for (Pair pair : fb) {
+            if (!pair.to().equals(SymbolTable.END_MARK)) {
+                appendPair(output, pair, "FB");
+            }
+        }
+
+        output.append("\nStep 10: Final FB Relationships with End Mark\n");
+        output.append("-------------------------------------------------------\n");
+        appendPairsOrNone(output, fb, "FB", "No FB relationships found.\n");
+    }
+
+    // Step 12: Select sets
+    private static void appendSelect(StringBuilder output, List<ProductionSet> select) {
+        output.append("\nStep 12: Compute Select Set for Each Production\n");
+        for (ProductionSet production : select) {
+            output.append("Sel(").append(production.number()).append(") = ");
+            if (production.epsilon()) {
+                output.append("First(ϵ) U Fol(").append(production.nonterminal()).append(") = {} U {");
+                appendSymbols(output, production.symbols());
+            } else if (production.nullable()) {
+                output.append("First(").append(production.production()).append(") U Fol(")
+                        .append(production.nonterminal()).append(") = {");
+                appendSymbols(output, production.symbols());
+            } else {
+                output.append("First(").append(production.production()).append(") = {");
+                appendFirst(output, production);
+            }
+            output.append("}\n");
+        }
+    }
+
+    // Step 13: one row per nonterminal, one column per lookahead, production numbers in the cells
+    private static void appendTable(StringBuilder output, GrammarAnalysisResult.ParseTable table) {
+        output.append("\nStep 13: LL(1) Parse Table\n");
+        int width = 4;
+        for (String name : table.nonterminals()) {
+            width = Math.max(width, name.length() + 2);
+        }
+        for (String name : table.terminals()) {
+            width = Math.max(width, name.length() + 2);
+        }
+        String cell = "%-" + width + "s";
+        output.append(String.format(cell, ""));
+        for (String terminal : table.terminals()) {
+            output.append(String.format(cell, terminal));
+        }
+        output.append('\n').append("-".repeat(width * (table.terminals().size() + 1))).append('\n');
+        for (int row = 0; row < table.nonterminals().size(); row++) {
+            output.append(String.format(cell, table.nonterminals().get(row)));
+            for (int number : table.cells()[row]) {
+                output.append(String.format(cell, number == LL1Table.NONE ? "" : String.valueOf(number)));
+            }
+            output.append('\n');
+        }
+        for (GrammarAnalysisResult.TableConflict conflict : table.conflicts()) {
+            output.append("Conflict: M[").append(conflict.nonterminal()).append(", ").append(conflict.terminal())
+                    .append("] = ").append(conflict.productions()).append('\n');
+        }
+    }
+
+    // The closed relation in the order its pairs were added: direct, then transitive, then reflexive
+    private static List<Pair> closed(Closure closure) {
+        Set<Pair> pairs = new LinkedHashSet<>(closure.direct());
+        pairs.addAll(closure.transitive());
+        pairs.addAll(closure.reflexive());
+        return new ArrayList<>(pairs);
+    }
+
+    // EO pairs ending where an FDB pair starts, all FDB pairs, and BW pairs starting where an FDB pair ends
+    private static void appendJoinColumns(StringBuilder output, List<Pair> eo, List<Pair> fdb, List<Pair> bw) {
+        Set<String> fdbLeft = new HashSet<>();
+        Set<String> fdbRight = new HashSet<>();
+        for (Pair pair : fdb) {
+            fdbLeft.add(pair.from());
+            fdbRight.add(pair.to());
+        }
+        List<Pair> filteredEO = eo.stream().filter(pair -> fdbLeft.contains(pair.to())).toList();
+        List<Pair> filteredBW = bw.stream().filter(pair -> fdbRight.contains(pair.from())).toList();
+
+        String row = "%-" + COLUMN_WIDTH + "s%-" + COLUMN_WIDTH + "s%-" + COLUMN_WIDTH + "s\n";
+        output.append(String.format(row, "From EO", "From FDB", "From BW"));
+        output.append("-".repeat(COLUMN_WIDTH * 3)).append("\n");
+
+        int rows = Math.max(filteredEO.size(), Math.max(fdb.size(), filteredBW.size()));
+        for (int i = 0; i < rows; i++) {
+            output.append(String.format(row, cell(filteredEO, i, "EO"), cell(fdb, i, "FDB"), cell(filteredBW, i, "BW")));
+        }
+    }
+
+    private static String cell(List<Pair> pairs, int index, String operator) {
+        return index < pairs.size() ? pairs.get(index).from() + " " + operator + " " + pairs.get(index).to() : "";
+    }
+
+    // First of a production, with ϵ when every symbol of it is nullable
+    private static void appendFirst(StringBuilder output, ProductionSet production) {
+        appendSymbols(output, production.symbols());
+        if (production.nullable()) {
+            output.append(production.symbols().isEmpty() ? "" : ", ").append(SymbolTable.EPSILON);
+        }
+    }
+
+    private static void appendSymbols(StringBuilder output, List<String> symbols) {
+        output.append(String.join(", ", symbols));
+    }
+
+    private static void appendPairsOrNone(StringBuilder output, List<Pair> pairs, String operator, String none) {
+        if (pairs.isEmpty()) {
+            output.append(none);
+        } else {
+            appendPairs(output, pairs, operator);
+        }
+    }
+
+    private static void appendPairs(StringBuilder output, List<Pair> pairs, String operator) {
+        for (Pair pair : pairs) {
+            appendPair(output, pair, operator);
+        }
+    }
+
+    private static void appendPair(StringBuilder output, Pair pair, String operator) {
+        output.append(pair.from()).append(' ').append(operator).append(' ').append(pair.to()).append('\n');
+    }
+
+    // The message, then one line per conflict at the rule it was found in
+    private static String renderConflicts(GrammarAnalysisResult result) {
+        StringBuilder output = new StringBuilder(result.message());
+        for (int i = 0; i < result.conflictDetails().size(); i++) {
+            GrammarAnalysisResult.Conflict conflict = result.conflictDetails().get(i);
+            output.append('\n');
+            if (conflict.line() > 0) {
+                output.append("Line ").append(conflict.line()).append(", column ").append(conflict.column()).append(": ");
+            }
+            output.append(result.conflicts().get(i));
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo;
+
+/**
+ * A binary relation over interned symbol ids, stored as a square bit matrix with one
+ * {@code long[]} row segment per symbol. Closures are computed word-parallel, so a
+ * relation over n symbols closes in O(n^3 / 64) instead of re-scanning string pairs.
+ */
+final class BitRelation {
+
+    @FunctionalInterface
+    interface PairConsumer {
+        void accept(int from, int to);
+    }
+
+    private final int size;
+    private final int words;
+    private final long[] bits; // Row i occupies bits[i * words .. (i + 1) * words)
+
+    BitRelation(int size) {
+        this.size = size;
+        this.words = (size + 63) >>> 6;
+        this.bits = new long[size * words];
+    }
+
+    private BitRelation(BitRelation other) {
+        this.size = other.size;
+        this.words = other.words;
+        this.bits = other.bits.clone();
+    }
+
+    int size() {
+        return size;
+    }
+
+    BitRelation copy() {
+        return new BitRelation(this);
+    }
+
+    // Returns true if the pair was not already present
+    boolean add(int from, int to) {
+        int index = from * words + (to >>> 6);
+        long mask = 1L << to;
+        boolean added = (bits[index] & mask) == 0;
+        bits[index] |= mask;
+        return added;
+    }
+
+    boolean contains(int from, int to) {
+        return (bits[from * words + (to >>> 6)] & (1L << to)) != 0;
+    }
+
+    // Transitive closure (Warshall): whenever i relates to k, row i absorbs row k.
+    // The deadline is checked once per pivot row.
+    void closeTransitively(AnalysisDeadline deadline) {
+        for (int k = 0; k < size; k++) {
+            deadline.check();
+            int kBase = k * words;
+            for (int i = 0; i < size; i++) {
+                if (contains(i, k)) {
+                    int iBase = i * words;
+                    for (int w = 0; w < words; w++) {
+                        bits[iBase + w] |= bits[kBase + w];
+                    }
+                }
+            }
+        }
+    }
+
+    // Visit every pair row by row, in ascending id order
+    void forEach(PairConsumer consumer) {
+        for (int from = 0; from < size; from++) {
+            int base = from * words;
+            for (int w = 0; w < words; w++) {
+                long word = bits[base + w];
+                while (word != 0) {
+                    int to = (w << 6) + Long.numberOfTrailingZeros(word);
+                    consumer.accept(from, to);
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Integer-encoded form of the grammar rules, built once per analysis: every symbol (a character,
+ * or a whitespace-separated name in {@link SymbolMode#TOKENS}) is interned in a {@link SymbolTable}
+ * and every production becomes an {@code int[]} of symbol ids (empty for ϵ). Every stage works on
+ * these ids only, so both symbol modes are analyzed alike. Productions are numbered in rule order, matching the
+ * numbering of the Select sets.
+ */
+final class CompiledGrammar {
+
+    private final SymbolTable symbols;
+    private final int[] nonterminals;       // Defined nonterminals in rule order
+    private final int[] terminals;          // Terminals in first-seen order
+    private final int[] displayOrder;       // Defined nonterminals, then production symbols in first-seen order
+    private final int[] rank;               // Position of each symbol in displayOrder
+    private final int[] productionLhs;
+    private final int[][] productionRhs;
+    private final String[] productionText;  // Productions as written, for display
+    private final int[][] productionsOf;    // Production ids per symbol id (empty for terminals)
+    private final boolean[] defined;        // Symbols that appear on a left-hand side
+    private final boolean[] used;           // Defined nonterminals and terminals of the current rules
+    private final int start;
+    private final int endMark;
+
+    private CompiledGrammar(SymbolTable symbols, int[] nonterminals, int[] displayOrder, int[] productionLhs,
+                            int[][] productionRhs, String[] productionText, int start) {
+        this.symbols = symbols;
+        this.nonterminals = nonterminals;
+        this.displayOrder = displayOrder;
+        this.terminals = Arrays.stream(displayOrder).filter(symbols::isTerminal).toArray();
+        this.productionLhs = productionLhs;
+        this.productionRhs = productionRhs;
+        this.productionText = productionText;
+        this.start = start;
+        this.endMark = symbols.intern(SymbolTable.END_MARK, SymbolTable.END);
+
+        int symbolCount = symbols.size();
+        this.defined = new boolean[symbolCount];
+        int[] counts = new int[symbolCount];
+        this.used = new boolean[symbolCount];
+        for (int lhs : productionLhs) {
+            counts[lhs]++;
+            defined[lhs] = true;
+            used[lhs] = true;
+        }
+        for (int terminal : terminals) {
+            used[terminal] = true;
+        }
+
+        // Symbols outside the display order (left over in a shared table, the end mark) go last
+        this.rank = new int[symbolCount];
+        Arrays.fill(rank, Integer.MAX_VALUE);
+        for (int i = 0; i < displayOrder.length; i++) {
+            rank[displayOrder[i]] = i;
+        }
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            if (rank[symbol] == Integer.MAX_VALUE) {
+                rank[symbol] = displayOrder.length + symbol;
+            }
+        }
+        this.productionsOf = new int[symbolCount][];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            productionsOf[symbol] = new int[counts[symbol]];
+            counts[symbol] = 0;
+        }
+        for (int production = 0; production < productionLhs.length; production++) {
+            int lhs = productionLhs[production];
+            productionsOf[lhs][counts[lhs]++] = production;
+        }
+    }
+
+    // Compile the rules, treating each character of a production as one symbol (uppercase = nonterminal)
+    static CompiledGrammar compile(Map<String, List<String>> grammarRules) {
+        return compile(grammarRules, new SymbolTable(), SymbolMode.CHARACTERS);
+    }
+
+    static CompiledGrammar compile(Map<String, List<String>> grammarRules, SymbolMode mode) {
+        return compile(grammarRules, new SymbolTable(), mode);
+    }
+
+    // Compile against the symbol table of an earlier compilation so unchanged symbols keep their ids.
+    // Falls back to a fresh table if a symbol would now be classified differently.
+    static CompiledGrammar compile(Map<String, List<String>> grammarRules, SymbolTable previousSymbols,
+                                   SymbolMode mode) {
+        if (previousSymbols.size() > 0 && !keepsSymbolKinds(grammarRules, previousSymbols, mode)) {
+            previousSymbols = new SymbolTable();
+        }
+        SymbolTable symbols = previousSymbols;
+        int[] nonterminals = new int[grammarRules.size()];
+        int index = 0;
+        for (String nonterminal : grammarRules.keySet()) {
+            nonterminals[index++] = symbols.intern(nonterminal, SymbolTable.NONTERMINAL);
+        }
+
+        List<Integer> lhs = new ArrayList<>();
+        List<int[]> rhs = new ArrayList<>();
+        List<String> text = new ArrayList<>();
+        // Display order depends only on the rules, never on ids handed out by an earlier compilation
+        List<Integer> order = new ArrayList<>();
+        boolean[] seen = new boolean[symbols.size() + 16];
+        for (int nonterminal : nonterminals) {
+            order.add(nonterminal);
+            seen[nonterminal] = true;
+        }
+        for (Map.Entry<String, List<String>> entry : grammarRules.entrySet()) {
+            int left = symbols.id(entry.getKey());
+            for (String production : entry.getValue()) {
+                String[] names = symbolsOf(production, mode);
+                int[] encoded = new int[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    int symbol = symbols.intern(names[i], kindOf(names[i], mode));
+                    if (symbol >= seen.length) {
+                        seen = Arrays.copyOf(seen, Math.max(symbol + 1, seen.length * 2));
+                    }
+                    if (!seen[symbol] && symbols.kind(symbol) != SymbolTable.END) {
+                        seen[symbol] = true;
+                        order.add(symbol);
+                    }
+                    encoded[i] = symbol;
+                }
+                lhs.add(left);
+                rhs.add(encoded);
+                text.add(production);
+            }
+        }
+
+        // The start symbol is S when the grammar defines it, otherwise the first rule's nonterminal
+        int start = grammarRules.containsKey("S") ? symbols.id("S")
+                : nonterminals.length > 0 ? nonterminals[0] : -1;
+
+        return new CompiledGrammar(symbols, nonterminals,
+                order.stream().mapToInt(Integer::intValue).toArray(),
+                lhs.stream().mapToInt(Integer::intValue).toArray(),
+                rhs.toArray(new int[0][]),
+                text.toArray(new String[0]),
+                start);
+    }
+
+    // The symbols of a production in order; whitespace and ϵ contribute none
+    static String[] symbolsOf(String production, SymbolMode mode) {
+        List<String> names = new ArrayList<>(production.length());
+        int i = 0;
+        while (i < production.length()) {
+            char c = production.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            if (mode == SymbolMode.TOKENS) {
+                while (end < production.length() && !Character.isWhitespace(production.charAt(end))) {
+                    end++;
+                }
+            }
+            String name = production.substring(i, end);
+            if (!name.equals(SymbolTable.EPSILON)) {
+                names.add(name);
+            }
+            i = end;
+        }
+        return names.toArray(new String[0]);
+    }
+
+    // Kind of a symbol without a rule: by the case of the character, or always terminal for tokens
+    private static byte kindOf(String name, SymbolMode mode) {
+        return mode == SymbolMode.CHARACTERS && Character.isUpperCase(name.charAt(0))
+                ? SymbolTable.NONTERMINAL : SymbolTable.TERMINAL;
+    }
+
+    // True if every symbol already in the table gets the same kind a fresh compilation would give it:
+    // nonterminal for rule names, otherwise as kindOf classifies it
+    private static boolean keepsSymbolKinds(Map<String, List<String>> grammarRules, SymbolTable symbols,
+                                            SymbolMode mode) {
+        for (String nonterminal : grammarRules.keySet()) {
+            int symbol = symbols.id(nonterminal);
+            if (symbol >= 0 && !symbols.isNonTerminal(symbol)) {
+                return false;
+            }
+        }
+        for (List<String> productions : grammarRules.values()) {
+            for (String production : productions) {
+                for (String name : symbolsOf(production, mode)) {
+                    int symbol = symbols.id(name);
+                    if (symbol >= 0 && !grammarRules.containsKey(name)
+                            && (kindOf(name, mode) == SymbolTable.TERMINAL) != symbols.isTerminal(symbol)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    SymbolTable symbols() {
+        return symbols;
+    }
+
+    // Number of symbols this compilation was built with; a shared table may grow later
+    int symbolCount() {
+        return productionsOf.length;
+    }
+
+    String name(int symbol) {
+        return symbols.name(symbol);
+    }
+
+    int[] nonterminals() {
+        return nonterminals;
+    }
+
+    int[] terminals() {
+        return terminals;
+    }
+
+    // Defined nonterminals followed by the symbols of the productions, in first-seen order
+    int[] displayOrder() {
+        return displayOrder;
+    }
+
+    // Position of the symbol in the display order; results are rendered sorted by it
+    int rank(int symbol) {
+        return rank[symbol];
+    }
+
+    boolean isNonTerminal(int symbol) {
+        return symbols.isNonTerminal(symbol);
+    }
+
+    boolean isTerminal(int symbol) {
+        return symbols.isTerminal(symbol);
+    }
+
+    // True for symbols that have rules of their own
+    boolean isDefined(int symbol) {
+        return defined[symbol];
+    }
+
+    // True for the defined nonterminals and the terminals of the current rules; a shared symbol
+    // table may also hold symbols of earlier versions of the grammar
+    boolean isUsed(int symbol) {
+        return used[symbol];
+    }
+
+    int productionCount() {
+        return productionLhs.length;
+    }
+
+    int lhs(int production) {
+        return productionLhs[production];
+    }
+
+    int[] rhs(int production) {
+        return productionRhs[production];
+    }
+
+    String productionText(int production) {
+        return productionText[production];
+    }
+
+    int[] productionsOf(int nonterminal) {
+        return productionsOf[nonterminal];
+    }
+
+    int start() {
+        return start;
+    }
+
+    int endMark() {
+        return endMark;
+    }
+}
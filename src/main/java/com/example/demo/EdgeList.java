@@ -0,0 +1,41 @@
+package com.example.demo;
+
+import java.util.Arrays;
+
+/** Growable list of directed edges, turned into per-symbol adjacency arrays once complete. */
+final class EdgeList {
+
+    private int[] edges = new int[64];
+    private int size;
+
+    void add(int from, int to) {
+        if (2 * size == edges.length) {
+            edges = Arrays.copyOf(edges, edges.length * 2);
+        }
+        edges[2 * size] = from;
+        edges[2 * size + 1] = to;
+        size++;
+    }
+
+    // The edges as a flat from0, to0, from1, to1, ... array
+    int[] toArray() {
+        return Arrays.copyOf(edges, 2 * size);
+    }
+
+    int[][] toAdjacency(int symbolCount) {
+        int[] counts = new int[symbolCount];
+        for (int i = 0; i < size; i++) {
+            counts[edges[2 * i]]++;
+        }
+        int[][] adjacency = new int[symbolCount][];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            adjacency[symbol] = new int[counts[symbol]];
+            counts[symbol] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            int from = edges[2 * i];
+            adjacency[from][counts[from]++] = edges[2 * i + 1];
+        }
+        return adjacency;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo;
+
+/**
+ * The FB relation as an indexed join: X FB Z whenever X EO A, A FDB Y and Y BW Z.
+ * EO is indexed by its right side and BW by its left side, so every FDB pair probes
+ * exactly the matching rows instead of scanning the full EO × FDB × BW product.
+ * The join is built once per analysis and shared by every step that displays FB.
+ */
+final class FBJoin {
+
+    private final int[][] eoByRight;
+    private final int[][] bwByLeft;
+    private final OrderedRelation relation;
+
+    FBJoin(OrderedRelation eo, OrderedRelation fdb, OrderedRelation bw, int symbolCount, AnalysisDeadline deadline) {
+        this.eoByRight = eo.indexByRight();
+        this.bwByLeft = bw.indexByLeft();
+        this.relation = new OrderedRelation(symbolCount);
+
+        for (int i = 0; i < fdb.size(); i++) {
+            deadline.check();
+            int[] ends = eoByRight[fdb.from(i)];
+            int[] begins = bwByLeft[fdb.to(i)];
+            for (int x : ends) {
+                for (int z : begins) {
+                    relation.add(x, z);
+                }
+            }
+        }
+    }
+
+    // The joined FB pairs, without the end mark
+    OrderedRelation relation() {
+        return relation;
+    }
+}
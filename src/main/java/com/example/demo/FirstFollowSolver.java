@@ -0,0 +1,229 @@
+package com.example.demo;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Computes nullable nonterminals, First sets and Follow sets of a {@link CompiledGrammar}
+ * by pushing sets along the graph of which set feeds which. The graph is first condensed into
+ * its strongly connected components: the members of a cycle, such as an indirect left
+ * recursion, all end up with the same set, so each component is merged once and passed on
+ * in topological order, and every solve takes one union per edge.
+ */
+final class FirstFollowSolver {
+
+    private final CompiledGrammar grammar;
+    private final AnalysisDeadline deadline;
+    private final boolean[] nullable;
+    private final int[] nullableProduction; // Production that made each nonterminal nullable, or -1
+    private final int[] nullableOrder;      // Nullable nonterminals in the order they were found
+    private int nullableCount;
+    private BitSet[] first;
+    private BitSet[] follow;
+
+    FirstFollowSolver(CompiledGrammar grammar) {
+        this(grammar, AnalysisDeadline.NONE);
+    }
+
+    // The deadline is checked while the First and Follow sets are propagated
+    FirstFollowSolver(CompiledGrammar grammar, AnalysisDeadline deadline) {
+        this.grammar = grammar;
+        this.deadline = deadline;
+        int symbolCount = grammar.symbolCount();
+        this.nullable = new boolean[symbolCount];
+        this.nullableProduction = new int[symbolCount];
+        this.nullableOrder = new int[symbolCount];
+        Arrays.fill(nullableProduction, -1);
+        solveNullable();
+    }
+
+    // A production becomes nullable once every symbol in it is a nullable nonterminal, so each
+    // production keeps a count of symbols still unknown and every occurrence is visited once
+    private void solveNullable() {
+        int productionCount = grammar.productionCount();
+        int symbolCount = grammar.symbolCount();
+        int[] remaining = new int[productionCount];
+        int[] queue = new int[symbolCount];
+        int head = 0;
+        int tail = 0;
+
+        EdgeList occurrences = new EdgeList();
+        for (int production = 0; production < productionCount; production++) {
+            int[] rhs = grammar.rhs(production);
+            boolean hasTerminal = false;
+            for (int symbol : rhs) {
+                if (!grammar.isNonTerminal(symbol)) {
+                    hasTerminal = true;
+                    break;
+                }
+            }
+            if (hasTerminal) {
+                remaining[production] = -1; // Can never derive ϵ
+                continue;
+            }
+            remaining[production] = rhs.length;
+            for (int symbol : rhs) {
+                occurrences.add(symbol, production);
+            }
+            if (rhs.length == 0 && markNullable(grammar.lhs(production), production)) {
+                queue[tail++] = grammar.lhs(production);
+            }
+        }
+
+        int[][] occurrencesOf = occurrences.toAdjacency(symbolCount);
+        while (head < tail) {
+            int symbol = queue[head++];
+            for (int production : occurrencesOf[symbol]) {
+                if (remaining[production] > 0 && --remaining[production] == 0
+                        && markNullable(grammar.lhs(production), production)) {
+                    queue[tail++] = grammar.lhs(production);
+                }
+            }
+        }
+    }
+
+    private boolean markNullable(int nonterminal, int production) {
+        if (nullable[nonterminal]) {
+            return false;
+        }
+        nullable[nonterminal] = true;
+        nullableProduction[nonterminal] = production;
+        nullableOrder[nullableCount++] = nonterminal;
+        return true;
+    }
+
+    // First(A) gets the terminal that ends each nullable prefix directly, and absorbs
+    // First(B) for every nonterminal B in such a prefix
+    private void solveFirst() {
+        int symbolCount = grammar.symbolCount();
+        BitSet[] first = new BitSet[symbolCount]; // Published only once complete
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            first[symbol] = new BitSet();
+            if (grammar.isTerminal(symbol)) {
+                first[symbol].set(symbol);
+            }
+        }
+
+        EdgeList dependents = new EdgeList();
+        for (int production = 0; production < grammar.productionCount(); production++) {
+            int lhs = grammar.lhs(production);
+            for (int symbol : grammar.rhs(production)) {
+                if (!grammar.isNonTerminal(symbol)) {
+                    first[lhs].set(symbol);
+                    break;
+                }
+                dependents.add(symbol, lhs);
+                if (!nullable[symbol]) {
+                    break;
+                }
+            }
+        }
+
+        propagate(first, dependents.toAdjacency(symbolCount), deadline);
+        this.first = first;
+    }
+
+    // Follow(X) gets First of whatever comes after X in a production, and absorbs Follow(A)
+    // when the rest of A's production is nullable
+    private void solveFollow() {
+        BitSet[] firstSets = firstSets();
+        int symbolCount = grammar.symbolCount();
+        BitSet[] follow = new BitSet[symbolCount]; // Published only once complete
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            follow[symbol] = new BitSet();
+        }
+        if (grammar.start() >= 0) {
+            follow[grammar.start()].set(grammar.endMark());
+        }
+
+        EdgeList dependents = new EdgeList();
+        BitSet trailer = new BitSet();
+        for (int production = 0; production < grammar.productionCount(); production++) {
+            int lhs = grammar.lhs(production);
+            int[] rhs = grammar.rhs(production);
+            boolean trailerNullable = true;
+            trailer.clear();
+            for (int i = rhs.length - 1; i >= 0; i--) {
+                int symbol = rhs[i];
+                if (!grammar.isNonTerminal(symbol)) {
+                    trailer.clear();
+                    trailer.set(symbol);
+                    trailerNullable = false;
+                    continue;
+                }
+                follow[symbol].or(trailer);
+                if (trailerNullable) {
+                    dependents.add(lhs, symbol);
+                }
+                if (!nullable[symbol]) {
+                    trailer.clear();
+                    trailerNullable = false;
+                }
+                trailer.or(firstSets[symbol]);
+            }
+        }
+
+        propagate(follow, dependents.toAdjacency(symbolCount), deadline);
+        this.follow = follow;
+    }
+
+    // Adds each set to every set that depends on it, directly or not. Components come from Tarjan
+    // sinks first, so walking them backwards finishes every set before it is passed on.
+    private static void propagate(BitSet[] sets, int[][] dependents, AnalysisDeadline deadline) {
+        List<int[]> components = StronglyConnectedComponents.of(dependents);
+        for (int c = components.size() - 1; c >= 0; c--) {
+            deadline.check();
+            int[] component = components.get(c);
+            BitSet merged = sets[component[0]];
+            for (int i = 1; i < component.length; i++) {
+                merged.or(sets[component[i]]);
+            }
+            for (int i = 1; i < component.length; i++) {
+                sets[component[i]] = (BitSet) merged.clone();
+            }
+            for (int member : component) {
+                for (int dependent : dependents[member]) {
+                    if (dependent != member) {
+                        sets[dependent].or(merged);
+                    }
+                }
+            }
+        }
+    }
+
+    CompiledGrammar grammar() {
+        return grammar;
+    }
+
+    boolean isNullable(int symbol) {
+        return nullable[symbol];
+    }
+
+    // The production that made the nonterminal nullable, or -1
+    int nullableProduction(int nonterminal) {
+        return nullableProduction[nonterminal];
+    }
+
+    int[] nullableNonterminals() {
+        return Arrays.copyOf(nullableOrder, nullableCount);
+    }
+
+    BitSet[] firstSets() {
+        if (first == null) {
+            solveFirst();
+        }
+        return first;
+    }
+
+    BitSet first(int symbol) {
+        return firstSets()[symbol];
+    }
+
+    BitSet follow(int symbol) {
+        if (follow == null) {
+            solveFollow();
+        }
+        return follow[symbol];
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo;
+
+/**
+ * Base of the recognizer classes {@link RecognizerGenerator} writes for a grammar. The generated
+ * subclass has one method per nonterminal that switches on the lookahead and then matches the
+ * chosen production, calling the methods of its nonterminals in turn. It reads the token buffer of
+ * the {@link LL1Recognizer} running it and records where and why it failed.
+ */
+abstract class GeneratedRecognizer {
+
+    int[] tokens;     // Terminal ids of the sentence, the end mark last
+    int next;         // Position of the lookahead in tokens
+    int failedAt;     // Position of the token that could not be matched
+    int failedSymbol; // Terminal expected there, or the nonterminal with no production for it
+
+    // Matches the start symbol and then the end mark
+    abstract boolean recognize();
+
+    // Called by the generated code; returns false so a failing method can return its result directly
+    final boolean fail(int symbol) {
+        failedAt = next;
+        failedSymbol = symbol;
+        return false;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed outcome of one grammar analysis, serialized as-is by Jackson. Every step keeps
+ * its sets and relations as symbol names in display order; {@link AnalysisTextRenderer}
+ * turns the result into the step-by-step text report when a client asks for it.
+ * Conflicts come as text and, from the LL(1) check, located at their rules; First/Follow
+ * conflicts alone do not stop the analysis. Failed analyses only carry the status, the
+ * message and the conflicts found, plus the position of the error when a rule could not be read.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GrammarAnalysisResult(
+        String status,
+        String message,
+        List<String> conflicts,
+        List<Conflict> conflictDetails,
+        SyntaxError syntaxError,
+        List<NullableRule> nullableRules,         // Step 1
+        List<Pair> bdw,                           // Step 2
+        Closure bw,                               // Step 3
+        Map<String, List<String>> first,          // Step 4
+        List<ProductionSet> firstOfRightSide,     // Step 5
+        List<Pair> fdb,                           // Step 6
+        List<Pair> deo,                           // Step 7
+        Closure eo,                               // Step 8
+        List<Pair> fb,                            // Steps 9 and 10, end mark pairs last
+        Map<String, List<String>> follow,         // Step 11
+        List<ProductionSet> select,               // Step 12
+        ParseTable table,                         // Step 13
+        Map<String, Long> timingsMicros) {
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    /** One pair of a relation, e.g. {@code S BDW a}. */
+    public record Pair(String from, String to) {
+    }
+
+    /** A closed relation split into the pairs it started from and the pairs each closure added. */
+    public record Closure(List<Pair> direct, List<Pair> transitive, List<Pair> reflexive) {
+    }
+
+    /** Why a grammar is not LL(1). */
+    public enum ConflictType {
+        DIRECT_LEFT_RECURSION, INDIRECT_LEFT_RECURSION, FIRST_FIRST, FIRST_FOLLOW
+    }
+
+    /**
+     * One reason the grammar is not LL(1), at the line and column of the rule for
+     * {@code nonterminal} (0 when it was not read from text). {@code productions} are the numbers
+     * involved, from 1 in rule order; {@code symbols} are the shared lookaheads of a First/First or
+     * First/Follow conflict, or the nonterminals around an indirect left recursion cycle. Both
+     * locations and numbers refer to the rules as analyzed, which the API returns next to the
+     * conflicts as {@code normalizedGrammar}.
+     */
+    public record Conflict(ConflictType type, String nonterminal, int line, int column, List<Integer> productions,
+                           List<String> symbols) {
+    }
+
+    /** Where a malformed rule could not be read, 1-based, and why. */
+    public record SyntaxError(int line, int column, String reason) {
+    }
+
+    /** The production that makes a nonterminal nullable, ϵ for an empty one. */
+    public record NullableRule(String nonterminal, String production) {
+    }
+
+    /**
+     * A set computed per production, numbered from 1 in rule order. {@code epsilon} marks an
+     * empty production and {@code nullable} one whose every symbol can derive ϵ; the Select set
+     * of a nullable production also holds the Follow set of its nonterminal.
+     */
+    public record ProductionSet(int number, String nonterminal, String production, boolean epsilon,
+                                boolean nullable, List<String> symbols) {
+    }
+
+    /**
+     * The LL(1) parse table: {@code cells[row][column]} is the number of the production to expand
+     * for the nonterminal of the row on the terminal of the column (the end mark last), 0 for none.
+     * Each conflict lists every production that claims a cell; the lowest number is the one stored.
+     */
+    public record ParseTable(List<String> nonterminals, List<String> terminals, int[][] cells,
+                             List<TableConflict> conflicts) {
+    }
+
+    /** A table cell claimed by more than one production, e.g. a First/Follow clash. */
+    public record TableConflict(String nonterminal, String terminal, List<Integer> productions) {
+    }
+
+    static GrammarAnalysisResult error(String message, List<String> conflicts) {
+        return new GrammarAnalysisResult(ERROR, message, List.copyOf(conflicts), null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null);
+    }
+
+    static GrammarAnalysisResult notLL1(List<String> conflicts, List<Conflict> details) {
+        return notLL1(conflicts, details, details.size());
+    }
+
+    // With more conflicts found than the details list
+    static GrammarAnalysisResult notLL1(List<String> conflicts, List<Conflict> details, int found) {
+        return new GrammarAnalysisResult(ERROR, "The grammar is not LL(1): " + found + " conflict(s) found.",
+                List.copyOf(conflicts), List.copyOf(details), null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null);
+    }
+
+    static GrammarAnalysisResult invalidRule(String message, String rule, GrammarSyntaxException e) {
+        return new GrammarAnalysisResult(ERROR, message, List.of("Invalid rule: " + rule.trim()), null,
+                new SyntaxError(e.getLine(), e.getColumn(), e.getReason()), null, null, null, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        return SUCCESS.equals(status);
+    }
+
+    // The part of the result one step produced, keyed like the fields above, plus its timing
+    public Map<String, Object> stepData(AnalysisStep step) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        switch (step) {
+            case NULLABLE -> data.put("nullableRules", nullableRules);
+            case BDW -> data.put("bdw", bdw);
+            case BW -> data.put("bw", bw);
+            case FIRST -> {
+                data.put("first", first);
+                data.put("firstOfRightSide", firstOfRightSide);
+            }
+            case FDB -> data.put("fdb", fdb);
+            case DEO -> data.put("deo", deo);
+            case EO -> data.put("eo", eo);
+            case FB -> data.put("fb", fb);
+            case FOLLOW -> data.put("follow", follow);
+            case SELECT -> data.put("select", select);
+            case TABLE -> data.put("table", table);
+        }
+        if (timingsMicros != null && timingsMicros.containsKey(step.key())) {
+            data.put("micros", timingsMicros.get(step.key()));
+        }
+        return data;
+    }
+
+    // Rough heap footprint for the result cache: two bytes per char of every name plus
+    // a fixed overhead per pair, set entry and production. Steps that were not run are null.
+    long approximateBytes() {
+        long bytes = 256 + chars(message) + (syntaxError == null ? 0 : 64 + chars(syntaxError.reason()));
+        if (conflicts != null) {
+            for (String conflict : conflicts) {
+                bytes += 48 + chars(conflict);
+            }
+        }
+        bytes += conflictDetails == null ? 0 : 128L * conflictDetails.size();
+        bytes += nullableRules == null ? 0 : 64L * nullableRules.size();
+        bytes += pairBytes(bdw) + closureBytes(bw) + pairBytes(fdb) + pairBytes(deo) + closureBytes(eo) + pairBytes(fb);
+        bytes += setBytes(first) + setBytes(follow);
+        bytes += productionBytes(firstOfRightSide) + productionBytes(select) + tableBytes(table);
+        return bytes + (timingsMicros == null ? 0 : 64L * timingsMicros.size());
+    }
+
+    private static long chars(String text) {
+        return text == null ? 0 : 2L * text.length();
+    }
+
+    private static long pairBytes(List<Pair> pairs) {
+        return pairs == null ? 0 : 56L * pairs.size();
+    }
+
+    private static long closureBytes(Closure closure) {
+        return closure == null ? 0
+                : pairBytes(closure.direct()) + pairBytes(closure.transitive()) + pairBytes(closure.reflexive());
+    }
+
+    private static long setBytes(Map<String, List<String>> sets) {
+        long bytes = 0;
+        if (sets != null) {
+            for (List<String> symbols : sets.values()) {
+                bytes += 64 + 8L * symbols.size();
+            }
+        }
+        return bytes;
+    }
+
+    private static long tableBytes(ParseTable table) {
+        if (table == null) {
+            return 0;
+        }
+        long bytes = 64L * (table.nonterminals().size() + table.terminals().size() + table.conflicts().size());
+        for (int[] row : table.cells()) {
+            bytes += 16 + 4L * row.length;
+        }
+        return bytes;
+    }
+
+    private static long productionBytes(List<ProductionSet> productions) {
+        long bytes = 0;
+        if (productions != null) {
+            for (ProductionSet production : productions) {
+                bytes += 80 + chars(production.production()) + 8L * production.symbols().size();
+            }
+        }
+        return bytes;
+    }
+}
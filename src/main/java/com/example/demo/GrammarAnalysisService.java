@@ -0,0 +1,104 @@
+package com.example.demo;
+
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Runs the grammar analysis for the controllers. Grammars are normalized first, so every
+ * submission with the same canonical form is served from the {@link GrammarResultCache}.
+ * Analyses that miss the cache go through {@link AnalysisAdmission} and are limited by the
+ * {@link AnalysisBudget}; one that exceeds it throws {@link AnalysisBudgetExceededException}.
+ * Every analysis that actually runs is recorded in {@link GrammarMetrics}.
+ */
+@Service
+public class GrammarAnalysisService {
+
+    private final GrammarResultCache cache;
+    private final AnalysisAdmission admission;
+    private final AnalysisBudget budget;
+    private final GrammarMetrics metrics;
+
+    public GrammarAnalysisService(GrammarResultCache cache, AnalysisAdmission admission, AnalysisBudget budget,
+                                  GrammarMetrics metrics) {
+        this.cache = cache;
+        this.admission = admission;
+        this.budget = budget;
+        this.metrics = metrics;
+    }
+
+    public GrammarAnalysisResult analyze(List<String> rules) {
+        return analyze(GrammarNormalizer.normalize(rules));
+    }
+
+    public GrammarAnalysisResult analyze(GrammarNormalizer.NormalizedGrammar grammar) {
+        return analyze(grammar, AnalysisStep.ALL);
+    }
+
+    // Runs only the requested steps and what they depend on; each selection is cached on its own.
+    // Throws AnalysisRejectedException if too many analyses are running already.
+    public GrammarAnalysisResult analyze(GrammarNormalizer.NormalizedGrammar grammar, Set<AnalysisStep> steps) {
+        return analyze(grammar, steps, false);
+    }
+
+    // For work that is already queued (batches): waits for a free slot instead of being rejected
+    public GrammarAnalysisResult analyzeWhenAdmitted(GrammarNormalizer.NormalizedGrammar grammar, Set<AnalysisStep> steps) {
+        return analyze(grammar, steps, true);
+    }
+
+    private GrammarAnalysisResult analyze(GrammarNormalizer.NormalizedGrammar grammar, Set<AnalysisStep> steps,
+                                          boolean wait) {
+        String key = cacheKey(grammar, steps);
+        GrammarAnalysisResult result = cache.get(key);
+        if (result == null) {
+            // Create a new instance of RecursiveDescentParser for this grammar
+            RecursiveDescentParser parser = new RecursiveDescentParser(budget, grammar.symbols());
+            Supplier<GrammarAnalysisResult> analysis = () -> metrics.record(GrammarMetrics.STATELESS,
+                    grammar.rules().size(), () -> parser.analyze(grammar.rules(), steps));
+            result = wait ? admission.admitWaiting(analysis) : admission.admit(analysis);
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    // Like analyze, but hands every requested step to the listener as soon as it is available.
+    // A cached result is replayed step by step.
+    public GrammarAnalysisResult analyze(GrammarNormalizer.NormalizedGrammar grammar, Set<AnalysisStep> steps,
+                                         AnalysisListener listener) {
+        String key = cacheKey(grammar, steps);
+        GrammarAnalysisResult result = cache.get(key);
+        if (result != null) {
+            if (result.isSuccess()) {
+                for (AnalysisStep step : AnalysisStep.withDependencies(steps)) {
+                    if (steps.contains(step)) {
+                        listener.stepCompleted(step, result);
+                    }
+                }
+            }
+            return result;
+        }
+        result = admission.admit(() -> metrics.record(GrammarMetrics.STATELESS, grammar.rules().size(),
+                () -> new RecursiveDescentParser(budget, grammar.symbols()).analyze(grammar.rules(), steps, listener)));
+        cache.put(key, result);
+        return result;
+    }
+
+    // The grammar without left recursion and common prefixes (see GrammarTransformer), rewritten under the
+    // same admission and budget as an analysis; null if its rules cannot be read
+    public GrammarTransformer.Transformation transform(GrammarNormalizer.NormalizedGrammar grammar) {
+        return admission.admit(() -> {
+            try {
+                return GrammarTransformer.transform(grammar.rules(), grammar.symbols(), budget);
+            } catch (GrammarSyntaxException e) {
+                return null; // The analysis of the grammar as sent reports where
+            }
+        });
+    }
+
+    private static String cacheKey(GrammarNormalizer.NormalizedGrammar grammar, Set<AnalysisStep> steps) {
+        return AnalysisStep.ALL.equals(steps) ? grammar.fingerprint()
+                : grammar.fingerprint() + "?steps=" + AnalysisStep.toKey(steps);
+    }
+}
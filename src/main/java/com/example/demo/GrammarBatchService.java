@@ -0,0 +1,104 @@
+package com.example.demo;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analyzes many grammars at once on a fixed pool of worker threads, one per core by default.
+ * Every grammar goes through {@link GrammarAnalysisService}, so repeated grammars in a batch
+ * (or across batches) are served from the result cache.
+ */
+@Service
+public class GrammarBatchService {
+
+    private final GrammarAnalysisService analysisService;
+    private final ExecutorService workers;
+    private final int maxSize;
+
+    public GrammarBatchService(GrammarAnalysisService analysisService,
+                               @Value("${grammar.batch.parallelism:0}") int parallelism,
+                               @Value("${grammar.batch.max-size:1000}") int maxSize) {
+        this.analysisService = analysisService;
+        this.maxSize = maxSize;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "grammar-batch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    // One entry per grammar, in input order, each with its own status
+    public List<Map<String, Object>> analyze(List<List<String>> grammars, Set<AnalysisStep> steps, String format) {
+        return analyze(grammars, steps, SymbolMode.CHARACTERS, format);
+    }
+
+    public List<Map<String, Object>> analyze(List<List<String>> grammars, Set<AnalysisStep> steps, SymbolMode symbols,
+                                             String format) {
+        List<CompletableFuture<Map<String, Object>>> pending = new ArrayList<>(grammars.size());
+        for (List<String> rules : grammars) {
+            pending.add(CompletableFuture.supplyAsync(() -> analyzeOne(rules, steps, symbols, format), workers));
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(pending.size());
+        for (int index = 0; index < pending.size(); index++) {
+            Map<String, Object> item;
+            try {
+                item = pending.get(index).join();
+            } catch (CompletionException e) {
+                item = error("Analysis failed: " + e.getCause());
+            }
+            Map<String, Object> indexed = new LinkedHashMap<>();
+            indexed.put("index", index);
+            indexed.putAll(item);
+            results.add(indexed);
+        }
+        return results;
+    }
+
+    private Map<String, Object> analyzeOne(List<String> rules, Set<AnalysisStep> steps, SymbolMode symbols,
+                                           String format) {
+        if (rules == null || rules.isEmpty()) {
+            return error("Grammar input cannot be empty.");
+        }
+        GrammarNormalizer.NormalizedGrammar grammar = GrammarNormalizer.normalize(rules, symbols);
+        Map<String, Object> item;
+        try {
+            item = GrammarController.responseBody(analysisService.analyzeWhenAdmitted(grammar, steps), format,
+                    grammar);
+        } catch (AnalysisBudgetExceededException e) {
+            item = e.toResponse();
+        }
+        item.put("fingerprint", grammar.fingerprint());
+        return item;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("status", "error");
+        item.put("message", message);
+        return item;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -1,16 +1,53 @@
 package com.example.demo;
 
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/grammar")
 public class GrammarController {
 
+    private final GrammarAnalysisService analysisService;
+    private final GrammarResultCache resultCache;
+    private final AsyncTaskExecutor streamExecutor;
+    private final GrammarBatchService batchService;
+    private final GrammarRecognitionService recognitionService;
+
+    public GrammarController(GrammarAnalysisService analysisService, GrammarResultCache resultCache,
+                             AsyncTaskExecutor streamExecutor, GrammarBatchService batchService,
+                             GrammarRecognitionService recognitionService) {
+        this.analysisService = analysisService;
+        this.resultCache = resultCache;
+        this.streamExecutor = streamExecutor;
+        this.batchService = batchService;
+        this.recognitionService = recognitionService;
+    }
+
+    // Returns the typed analysis; format=text returns the step-by-step report as the message instead.
+    // steps=first,follow,select limits the analysis to those steps and the ones they depend on.
+    // symbols=tokens reads whitespace-separated names as symbols (E -> T E'), instead of characters.
+    // transform=true first removes left recursion and left-factors the grammar, then analyzes the
+    // rewritten grammar and returns it as transformedGrammar, with the list of transformations.
     @PostMapping("/parse")
-    public Map<String, Object> parseGrammar(@RequestBody Map<String, List<String>> grammarInput) {
+    public Map<String, Object> parseGrammar(@RequestBody Map<String, List<String>> grammarInput,
+                                            @RequestParam(defaultValue = "json") String format,
+                                            @RequestParam(required = false) String steps,
+                                            @RequestParam(required = false) String symbols,
+                                            @RequestParam(defaultValue = "false") boolean transform) {
         Map<String, Object> response = new HashMap<>();
         List<String> rules = grammarInput.get("grammar");
 
@@ -20,19 +57,291 @@ public class GrammarController {
             return response;
         }
 
-        // Create a new instance of RecursiveDescentParser for this request
-        RecursiveDescentParser parser = new RecursiveDescentParser();
-        String result = parser.runParser(rules);
+        Set<AnalysisStep> selectedSteps;
+        SymbolMode symbolMode;
+        try {
+            selectedSteps = AnalysisStep.parse(steps);
+            symbolMode = SymbolMode.parse(symbols);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return response;
+        }
 
-        if (result.contains("error")) {
+        // Equivalent grammars share one canonical form, and with it one cached result
+        GrammarNormalizer.NormalizedGrammar grammar = GrammarNormalizer.normalize(rules, symbolMode);
+        if (transform) {
+            GrammarTransformer.Transformation transformation;
+            try {
+                transformation = analysisService.transform(grammar);
+            } catch (IllegalArgumentException e) {
+                response.put("status", "error");
+                response.put("message", e.getMessage());
+                return response;
+            }
+            if (transformation != null) {
+                response.put("transformedGrammar", transformation.rules());
+                response.put("transformations", transformation.changes());
+                grammar = GrammarNormalizer.normalize(transformation.rules(), symbolMode);
+            }
+        }
+        response.putAll(responseBody(analysisService.analyze(grammar, selectedSteps), format, grammar));
+        response.put("fingerprint", grammar.fingerprint());
+        return response;
+    }
+
+    // Streams the analysis as Server-Sent Events: one event per step, named after it (nullable, bdw, ...,
+    // select) and sent as soon as the step is computed, then a "done" event. Failures end with "error",
+    // after a "normalizedGrammar" event with the rules its conflicts point into if there are any.
+    @PostMapping(value = "/parse/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGrammar(@RequestBody Map<String, List<String>> grammarInput,
+                                    @RequestParam(required = false) String steps,
+                                    @RequestParam(required = false) String symbols) {
+        SseEmitter emitter = new SseEmitter();
+        List<String> rules = grammarInput.get("grammar");
+        Set<AnalysisStep> selectedSteps;
+        SymbolMode symbolMode;
+        try {
+            selectedSteps = AnalysisStep.parse(steps);
+            symbolMode = SymbolMode.parse(symbols);
+        } catch (IllegalArgumentException e) {
+            sendError(emitter, e.getMessage());
+            return emitter;
+        }
+        if (rules == null || rules.isEmpty()) {
+            sendError(emitter, "Grammar input cannot be empty.");
+            return emitter;
+        }
+
+        GrammarNormalizer.NormalizedGrammar grammar = GrammarNormalizer.normalize(rules, symbolMode);
+        streamExecutor.execute(() -> {
+            try {
+                GrammarAnalysisResult result = analysisService.analyze(grammar, selectedSteps,
+                        (step, partial) -> send(emitter, step.key(), partial.stepData(step)));
+                if (!result.isSuccess()) {
+                    if (result.conflictDetails() != null && !result.conflictDetails().isEmpty()) {
+                        send(emitter, "normalizedGrammar", grammar.rules()); // What the conflicts point into
+                    }
+                    send(emitter, "error", result);
+                } else {
+                    Map<String, Object> done = new LinkedHashMap<>();
+                    done.put("status", result.status());
+                    done.put("fingerprint", grammar.fingerprint());
+                    done.put("timingsMicros", result.timingsMicros());
+                    send(emitter, "done", done);
+                }
+                emitter.complete();
+            } catch (AnalysisRejectedException e) {
+                sendError(emitter, e.getMessage());
+            } catch (AnalysisBudgetExceededException e) {
+                send(emitter, "error", e.toResponse());
+                emitter.complete();
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e); // Includes a client that went away mid-stream
+            }
+        });
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sendError(SseEmitter emitter, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", "error");
+        error.put("message", message);
+        try {
+            send(emitter, "error", error);
+            emitter.complete();
+        } catch (UncheckedIOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    // Analyzes {"grammars": [[rules...], ...]} in parallel; results come back in input order,
+    // each with its own status. format, steps and symbols apply to every grammar of the batch.
+    @PostMapping("/batch")
+    public Map<String, Object> parseBatch(@RequestBody Map<String, List<List<String>>> batchInput,
+                                          @RequestParam(defaultValue = "json") String format,
+                                          @RequestParam(required = false) String steps,
+                                          @RequestParam(required = false) String symbols) {
+        Map<String, Object> response = new HashMap<>();
+        List<List<String>> grammars = batchInput.get("grammars");
+
+        if (grammars == null || grammars.isEmpty()) {
             response.put("status", "error");
-            response.put("message", result);
-        } else {
-            response.put("status", "success");
-            response.put("message", result);
+            response.put("message", "Batch input cannot be empty.");
+            return response;
+        }
+        if (grammars.size() > batchService.maxSize()) {
+            response.put("status", "error");
+            response.put("message", "A batch can hold at most " + batchService.maxSize() + " grammars.");
+            return response;
         }
 
+        Set<AnalysisStep> selectedSteps;
+        SymbolMode symbolMode;
+        try {
+            selectedSteps = AnalysisStep.parse(steps);
+            symbolMode = SymbolMode.parse(symbols);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return response;
+        }
+
+        List<Map<String, Object>> results = batchService.analyze(grammars, selectedSteps, symbolMode, format);
+        response.put("status", "success");
+        response.put("count", results.size());
+        response.put("failed", results.stream().filter(item -> !"success".equals(item.get("status"))).count());
+        response.put("results", results);
         return response;
     }
-}
 
+    // Checks {"grammar": [rules...], "sentences": ["i+i*i", ...]} against the grammar's LL(1) table.
+    // Each result says whether the sentence was accepted and, if not, where and what was expected.
+    // symbols=tokens reads the sentences as whitespace-separated names, like the rules; mode=bytecode
+    // runs them through a recognizer class generated for the grammar instead of the table.
+    @PostMapping("/recognize")
+    public Map<String, Object> recognizeSentences(@RequestBody Map<String, List<String>> recognizeInput,
+                                                  @RequestParam(required = false) String symbols,
+                                                  @RequestParam(required = false) String mode) {
+        Map<String, Object> response = new HashMap<>();
+        List<String> rules = recognizeInput.get("grammar");
+        List<String> sentences = recognizeInput.get("sentences");
+
+        if (rules == null || rules.isEmpty()) {
+            response.put("status", "error");
+            response.put("message", "Grammar input cannot be empty.");
+            return response;
+        }
+        if (sentences == null || sentences.isEmpty()) {
+            response.put("status", "error");
+            response.put("message", "Sentences cannot be empty.");
+            return response;
+        }
+        if (sentences.size() > recognitionService.maxSentences()) {
+            response.put("status", "error");
+            response.put("message", "At most " + recognitionService.maxSentences() + " sentences can be checked at once.");
+            return response;
+        }
+        SymbolMode symbolMode;
+        RecognizerMode recognizerMode;
+        try {
+            symbolMode = SymbolMode.parse(symbols);
+            recognizerMode = RecognizerMode.parse(mode);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return response;
+        }
+
+        GrammarNormalizer.NormalizedGrammar grammar = GrammarNormalizer.normalize(rules, symbolMode);
+        response.putAll(recognitionService.recognize(grammar, sentences, recognizerMode));
+        response.put("fingerprint", grammar.fingerprint());
+        return response;
+    }
+
+    // Exports a standalone Java recursive-descent parser for an LL(1) grammar as a downloadable
+    // ClassName.java (className defaults to GrammarParser, package to none). The parser needs only
+    // the JDK, so clients can parse without calling this service.
+    @PostMapping("/export")
+    public ResponseEntity<?> exportParser(@RequestBody Map<String, List<String>> grammarInput,
+                                          @RequestParam(required = false) String symbols,
+                                          @RequestParam(defaultValue = "GrammarParser") String className,
+                                          @RequestParam(name = "package", required = false) String packageName) {
+        Map<String, Object> response = new HashMap<>();
+        List<String> rules = grammarInput.get("grammar");
+
+        if (rules == null || rules.isEmpty()) {
+            response.put("status", "error");
+            response.put("message", "Grammar input cannot be empty.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (!ParserSourceWriter.isClassName(className) || !ParserSourceWriter.isPackageName(packageName)) {
+            response.put("status", "error");
+            response.put("message", "Not a valid Java class or package name.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        SymbolMode symbolMode;
+        try {
+            symbolMode = SymbolMode.parse(symbols);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        GrammarNormalizer.NormalizedGrammar grammar = GrammarNormalizer.normalize(rules, symbolMode);
+        response.putAll(recognitionService.export(grammar, packageName, className));
+        if (!"success".equals(response.get("status"))) {
+            response.put("fingerprint", grammar.fingerprint());
+            return ResponseEntity.unprocessableEntity().body(response);
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "x-java-source", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(className + ".java").build().toString())
+                .body(response.get("source"));
+    }
+
+    @PostMapping("/normalize")
+    public Map<String, Object> normalizeGrammar(@RequestBody Map<String, List<String>> grammarInput,
+                                                @RequestParam(required = false) String symbols) {
+        Map<String, Object> response = new HashMap<>();
+        List<String> rules = grammarInput.get("grammar");
+
+        if (rules == null || rules.isEmpty()) {
+            response.put("status", "error");
+            response.put("message", "Grammar input cannot be empty.");
+            return response;
+        }
+        SymbolMode symbolMode;
+        try {
+            symbolMode = SymbolMode.parse(symbols);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return response;
+        }
+
+        GrammarNormalizer.NormalizedGrammar grammar = GrammarNormalizer.normalize(rules, symbolMode);
+        response.put("status", "success");
+        response.put("grammar", grammar.rules());
+        response.put("fingerprint", grammar.fingerprint());
+        return response;
+    }
+
+    @GetMapping("/cache")
+    public Map<String, Object> cacheStats() {
+        return resultCache.stats();
+    }
+
+    // As below, plus the normalized rules when there are conflicts: their lines, columns and
+    // production numbers point into these rules, not into the grammar as it was sent
+    static Map<String, Object> responseBody(GrammarAnalysisResult result, String format,
+                                            GrammarNormalizer.NormalizedGrammar grammar) {
+        Map<String, Object> response = responseBody(result, format);
+        if (result.conflictDetails() != null && !result.conflictDetails().isEmpty()) {
+            response.put("normalizedGrammar", grammar.rules());
+        }
+        return response;
+    }
+
+    // The status plus either the result itself or, for format=text, its rendered report
+    static Map<String, Object> responseBody(GrammarAnalysisResult result, String format) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", result.status());
+        if ("text".equalsIgnoreCase(format)) {
+            response.put("message", AnalysisTextRenderer.render(result));
+        } else {
+            response.put("result", result);
+        }
+        return response;
+    }
+}
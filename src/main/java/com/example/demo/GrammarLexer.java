@@ -0,0 +1,159 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass lexer for the rule notation {@code A -> aB | ϵ}, one rule per line, replacing the
+ * regex splits the rules used to go through. {@code {...}} blocks (Invisible content) are skipped
+ * and an unclosed brace is read as a symbol. In {@link SymbolMode#CHARACTERS} every character is
+ * a symbol; in {@link SymbolMode#TOKENS} a symbol is a run of characters up to whitespace,
+ * {@code |} or {@code ->}, e.g. {@code Expr' -> + Term Expr' | ϵ}. Tokens carry their 1-based line and column.
+ */
+final class GrammarLexer {
+
+    enum Kind { SYMBOL, ARROW, BAR, EPSILON, NEWLINE, END }
+
+    /** One token; {@code spaced} if whitespace separates it from the previous one. */
+    record Token(Kind kind, String text, int line, int column, boolean spaced) {
+    }
+
+    /** A rule as written: its nonterminal and the text of each alternative, ϵ for an empty one. */
+    record Rule(String nonterminal, List<String> productions, int line, int column) {
+    }
+
+    private final String input;
+    private final boolean multiCharacterSymbols;
+    private int position;
+    private int line;
+    private int lineStart; // Offset of the first character of the current line
+
+    GrammarLexer(String input, int firstLine, SymbolMode mode) {
+        this.input = input;
+        this.multiCharacterSymbols = mode == SymbolMode.TOKENS;
+        this.line = firstLine;
+    }
+
+    // Reads the rules of a text, numbering its lines from 1
+    static List<Rule> readRules(String input, SymbolMode mode) {
+        return new GrammarLexer(input, 1, mode).readRules();
+    }
+
+    // Every rule of the input; blank lines are skipped.
+    // Throws GrammarSyntaxException at the first malformed rule.
+    List<Rule> readRules() {
+        List<Rule> rules = new ArrayList<>();
+        Token token = next();
+        while (token.kind() != Kind.END) {
+            if (token.kind() == Kind.NEWLINE) {
+                token = next();
+                continue;
+            }
+            if (token.kind() != Kind.SYMBOL) {
+                throw error(token, "Expected a nonterminal at the start of the rule");
+            }
+            Token nonterminal = token;
+            token = next();
+            if (token.kind() != Kind.ARROW) {
+                throw error(token, "Expected '->' after " + nonterminal.text());
+            }
+
+            List<String> productions = new ArrayList<>();
+            StringBuilder production = new StringBuilder();
+            for (token = next(); ; token = next()) {
+                if (token.kind() == Kind.ARROW) {
+                    throw error(token, "Unexpected '->', rules are separated by line breaks");
+                }
+                if (token.kind() == Kind.SYMBOL || token.kind() == Kind.EPSILON) {
+                    if (token.spaced() && !production.isEmpty()) {
+                        production.append(' ');
+                    }
+                    production.append(token.text());
+                } else {
+                    productions.add(production.isEmpty() ? SymbolTable.EPSILON : production.toString());
+                    production.setLength(0);
+                    if (token.kind() != Kind.BAR) {
+                        break; // End of the line or of the input
+                    }
+                }
+            }
+            rules.add(new Rule(nonterminal.text(), productions, nonterminal.line(), nonterminal.column()));
+        }
+        return rules;
+    }
+
+    Token next() {
+        boolean spaced = false;
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            int start = position;
+            if (c == '\n') {
+                Token newline = token(Kind.NEWLINE, "\n", start, spaced);
+                position++;
+                line++;
+                lineStart = position;
+                return newline;
+            }
+            if (Character.isWhitespace(c)) {
+                position++;
+                spaced = true;
+                continue;
+            }
+            if (c == '{' && skipBlock()) {
+                spaced |= multiCharacterSymbols; // Between characters a removed block leaves nothing behind
+                continue;
+            }
+            if (isArrow(position)) {
+                position += 2;
+                return token(Kind.ARROW, "->", start, spaced);
+            }
+            if (c == '|') {
+                position++;
+                return token(Kind.BAR, "|", start, spaced);
+            }
+
+            position++;
+            if (multiCharacterSymbols) {
+                while (position < input.length() && !endsSymbol(position)) {
+                    position++;
+                }
+            }
+            String text = input.substring(start, position);
+            return token(text.equals(SymbolTable.EPSILON) ? Kind.EPSILON : Kind.SYMBOL, text, start, spaced);
+        }
+        return token(Kind.END, "", position, spaced);
+    }
+
+    // Skips the {...} block at the current position, keeping count of the lines in it; false if it is never closed
+    private boolean skipBlock() {
+        int close = input.indexOf('}', position + 1);
+        if (close < 0) {
+            return false;
+        }
+        for (int i = position + 1; i < close; i++) {
+            if (input.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        position = close + 1;
+        return true;
+    }
+
+    private boolean endsSymbol(int at) {
+        char c = input.charAt(at);
+        return Character.isWhitespace(c) || c == '|' || isArrow(at) || (c == '{' && input.indexOf('}', at + 1) >= 0);
+    }
+
+    private boolean isArrow(int at) {
+        return input.charAt(at) == '-' && at + 1 < input.length() && input.charAt(at + 1) == '>';
+    }
+
+    private Token token(Kind kind, String text, int start, boolean spaced) {
+        return new Token(kind, text, line, start - lineStart + 1, spaced);
+    }
+
+    private static GrammarSyntaxException error(Token token, String reason) {
+        return new GrammarSyntaxException(token.line(), token.column(), reason);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the analysis pipeline, exposed through Actuator (e.g. /actuator/prometheus):
+ * <ul>
+ *   <li>{@code grammar.analysis} - duration of each analysis, tagged by kind and outcome</li>
+ *   <li>{@code grammar.analysis.step} - duration of each step, from the result's timings</li>
+ *   <li>{@code grammar.rules} and {@code grammar.relation.pairs} - grammar size and relation sizes</li>
+ *   <li>{@code grammar.cache.*} and {@code grammar.admission.*} - result cache and admission state</li>
+ * </ul>
+ */
+@Component
+public class GrammarMetrics {
+
+    static final String STATELESS = "stateless";
+    static final String SESSION = "session";
+    static final String RECOGNIZE = "recognize";
+
+    private final MeterRegistry registry;
+
+    public GrammarMetrics(MeterRegistry registry, GrammarResultCache cache, AnalysisAdmission admission) {
+        this.registry = registry;
+
+        Gauge.builder("grammar.cache.entries", cache, GrammarResultCache::size).register(registry);
+        Gauge.builder("grammar.cache.bytes", cache, GrammarResultCache::bytes).baseUnit("bytes").register(registry);
+        Gauge.builder("grammar.cache.hit.ratio", cache, GrammarMetrics::hitRatio).register(registry);
+        FunctionCounter.builder("grammar.cache.requests", cache, GrammarResultCache::hits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("grammar.cache.requests", cache, GrammarResultCache::misses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("grammar.cache.evictions", cache, GrammarResultCache::evictions).register(registry);
+
+        Gauge.builder("grammar.admission.in.flight", admission, AnalysisAdmission::inFlight).register(registry);
+        Gauge.builder("grammar.admission.max.concurrent", admission, AnalysisAdmission::maxConcurrent).register(registry);
+        FunctionCounter.builder("grammar.admission.rejected", admission, AnalysisAdmission::rejected).register(registry);
+    }
+
+    // Times one analysis of a grammar with the given number of rules and records what it produced.
+    // The outcome tag is success, error (e.g. not LL(1)), budget_exceeded or failed.
+    public GrammarAnalysisResult record(String kind, int rules, Supplier<GrammarAnalysisResult> analysis) {
+        return record(kind, () -> rules, analysis);
+    }
+
+    // As above, for a rule count only known once the analysis has read the grammar
+    public GrammarAnalysisResult record(String kind, IntSupplier rules, Supplier<GrammarAnalysisResult> analysis) {
+        long started = System.nanoTime();
+        String outcome = "failed";
+        try {
+            GrammarAnalysisResult result = analysis.get();
+            outcome = result.status();
+            recordSizes(rules.getAsInt(), result);
+            return result;
+        } catch (AnalysisBudgetExceededException e) {
+            outcome = "budget_exceeded";
+            throw e;
+        } finally {
+            Timer.builder("grammar.analysis")
+                    .tags("kind", kind, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordSizes(int rules, GrammarAnalysisResult result) {
+        DistributionSummary.builder("grammar.rules").publishPercentileHistogram().register(registry).record(rules);
+        if (result.timingsMicros() != null) {
+            for (Map.Entry<String, Long> timing : result.timingsMicros().entrySet()) {
+                if (!timing.getKey().equals("total")) {
+                    Timer.builder("grammar.analysis.step")
+                            .tag("step", timing.getKey())
+                            .publishPercentileHistogram()
+                            .register(registry)
+                            .record(timing.getValue(), TimeUnit.MICROSECONDS);
+                }
+            }
+        }
+        recordPairs("bdw", result.bdw());
+        recordPairs("bw", result.bw());
+        recordPairs("fdb", result.fdb());
+        recordPairs("deo", result.deo());
+        recordPairs("eo", result.eo());
+        recordPairs("fb", result.fb());
+    }
+
+    private void recordPairs(String relation, GrammarAnalysisResult.Closure closure) {
+        if (closure != null) {
+            pairs(relation).record(closure.direct().size() + closure.transitive().size() + closure.reflexive().size());
+        }
+    }
+
+    private void recordPairs(String relation, List<GrammarAnalysisResult.Pair> pairs) {
+        if (pairs != null) {
+            pairs(relation).record(pairs.size());
+        }
+    }
+
+    private DistributionSummary pairs(String relation) {
+        return DistributionSummary.builder("grammar.relation.pairs")
+                .tag("relation", relation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static double hitRatio(GrammarResultCache cache) {
+        long hits = cache.hits();
+        long lookups = hits + cache.misses();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
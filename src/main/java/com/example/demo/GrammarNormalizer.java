@@ -0,0 +1,185 @@
+package com.example.demo;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Brings submitted grammars into a canonical form so that grammars differing only in
+ * whitespace, rule order, repeated alternatives or {@code {...}} comments are analyzed
+ * (and cached) as one:
+ * <ul>
+ *   <li>invisible {@code {...}} content and blank lines are dropped; for tokens a dropped block
+ *       still separates the symbols around it, as in {@link GrammarLexer},</li>
+ *   <li>rules for the same nonterminal are merged and repeated alternatives removed, alternatives
+ *       being compared by their symbols ({@code aB} and {@code a B} are one for characters),</li>
+ *   <li>the start symbol comes first, the other nonterminals follow in name order,</li>
+ *   <li>every rule is written as {@code A -> x | y} with single spaces, none inside an
+ *       alternative of characters, and ϵ spelled out.</li>
+ * </ul>
+ */
+public final class GrammarNormalizer {
+
+    private GrammarNormalizer() {
+    }
+
+    /**
+     * Canonical rules of a grammar, how their symbols are read, and the SHA-256 fingerprint of both.
+     * The same text read in another symbol mode is another grammar, so it gets another fingerprint.
+     */
+    public record NormalizedGrammar(List<String> rules, SymbolMode symbols, String fingerprint) {
+    }
+
+    public static NormalizedGrammar normalize(List<String> input) {
+        return normalize(input, SymbolMode.CHARACTERS);
+    }
+
+    public static NormalizedGrammar normalize(List<String> input, SymbolMode symbols) {
+        Map<String, Set<String>> rules = new LinkedHashMap<>();
+        boolean valid = true;
+
+        for (String element : input) {
+            valid &= readable(element == null ? "" : element, symbols);
+            String visible = stripInvisibleContent(element == null ? "" : element, symbols == SymbolMode.TOKENS);
+            for (String line : visible.split("\n")) {
+                String trimmed = collapseWhitespace(line);
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                valid &= addRule(rules, trimmed, symbols);
+            }
+        }
+
+        // A malformed rule cannot be canonicalized; keep the input as sent so the analysis reports
+        // the error at the line and column the client wrote it
+        List<String> canonical = valid ? canonicalRules(rules)
+                : input.stream().map(element -> element == null ? "" : element).toList();
+        return new NormalizedGrammar(List.copyOf(canonical), symbols, fingerprint(canonical, symbols));
+    }
+
+    // Whether the analysis can read the element, e.g. not "AB -> x" or "E' -> a" for characters
+    private static boolean readable(String element, SymbolMode symbols) {
+        try {
+            GrammarLexer.readRules(element, symbols);
+            return true;
+        } catch (GrammarSyntaxException e) {
+            return false;
+        }
+    }
+
+    // Splits "A -> x | y" into its nonterminal and alternatives; false if the rule is malformed
+    private static boolean addRule(Map<String, Set<String>> rules, String rule, SymbolMode symbols) {
+        int arrow = rule.indexOf("->");
+        if (arrow < 0 || rule.indexOf("->", arrow + 2) >= 0) {
+            return false;
+        }
+        String left = rule.substring(0, arrow).trim();
+        if (left.isEmpty()) {
+            return false;
+        }
+
+        Set<String> alternatives = rules.computeIfAbsent(left, key -> new LinkedHashSet<>());
+        String right = rule.substring(arrow + 2);
+        int begin = 0;
+        while (begin <= right.length()) {
+            int bar = right.indexOf('|', begin);
+            int end = bar < 0 ? right.length() : bar;
+            alternatives.add(canonicalAlternative(right.substring(begin, end), symbols));
+            begin = end + 1;
+        }
+        return true;
+    }
+
+    // The alternative as its symbols, so that alternatives compiling to the same production are one:
+    // "aB" and "a B" for characters, and ϵ wherever it is written
+    private static String canonicalAlternative(String alternative, SymbolMode symbols) {
+        String[] names = CompiledGrammar.symbolsOf(alternative, symbols);
+        return names.length == 0 ? SymbolTable.EPSILON : String.join(symbols == SymbolMode.TOKENS ? " " : "", names);
+    }
+
+    private static List<String> canonicalRules(Map<String, Set<String>> rules) {
+        List<String> nonterminals = new ArrayList<>(rules.keySet());
+        String start = rules.containsKey("S") ? "S" : nonterminals.isEmpty() ? null : nonterminals.get(0);
+        nonterminals.remove(start);
+        nonterminals.sort(null);
+        if (start != null) {
+            nonterminals.add(0, start);
+        }
+
+        List<String> canonical = new ArrayList<>(nonterminals.size());
+        for (String nonterminal : nonterminals) {
+            canonical.add(nonterminal + " -> " + String.join(" | ", rules.get(nonterminal)));
+        }
+        return canonical;
+    }
+
+    // Removes every `{...}` block (Invisible content) in a single pass, leaving a space in its place if
+    // it separates symbols; an unclosed brace is kept
+    static String stripInvisibleContent(String text, boolean separates) {
+        int open = text.indexOf('{');
+        if (open < 0) {
+            return text;
+        }
+        StringBuilder visible = new StringBuilder(text.length());
+        int position = 0;
+        while (open >= 0) {
+            int close = text.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            visible.append(text, position, open);
+            if (separates) {
+                visible.append(' ');
+            }
+            position = close + 1;
+            open = text.indexOf('{', position);
+        }
+        return visible.append(text, position, text.length()).toString();
+    }
+
+    // Trims the line and turns every run of whitespace into a single space
+    private static String collapseWhitespace(String line) {
+        StringBuilder collapsed = new StringBuilder(line.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = collapsed.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    collapsed.append(' ');
+                    pendingSpace = false;
+                }
+                collapsed.append(c);
+            }
+        }
+        return collapsed.toString();
+    }
+
+    // Character-mode grammars hash their rules alone, so their fingerprints predate the symbol modes
+    static String fingerprint(List<String> rules, SymbolMode symbols) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            if (symbols != SymbolMode.CHARACTERS) {
+                sha256.update(("symbols=" + symbols.key() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            for (String rule : rules) {
+                sha256.update(rule.getBytes(StandardCharsets.UTF_8));
+                sha256.update((byte) '\n');
+            }
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : sha256.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Checks sentences against a grammar, and exports standalone parsers for it. The LL(1) table is built once per request, by an analysis up
+ * to Step 13 that is admitted and budgeted like any other, and every sentence then runs through the
+ * same {@link LL1Recognizer}. Grammars with any LL(1) conflict, First/Follow ones included, are
+ * refused rather than recognized with an arbitrary choice of production. In {@link RecognizerMode#BYTECODE} the table and the class
+ * generated from it are kept per grammar fingerprint, least recently used evicted first, so a hot
+ * grammar skips both the analysis and the generation.
+ */
+@Service
+public class GrammarRecognitionService {
+
+    private final AnalysisAdmission admission;
+    private final AnalysisBudget budget;
+    private final GrammarMetrics metrics;
+    private final int maxSentences;
+    private final Map<String, Generated> generated;
+
+    // A grammar's table with the factory for its generated recognizer class
+    private record Generated(LL1Table table, Supplier<GeneratedRecognizer> recognizers) {
+    }
+
+    public GrammarRecognitionService(AnalysisAdmission admission, AnalysisBudget budget, GrammarMetrics metrics,
+                                     @Value("${grammar.recognize.max-sentences:100000}") int maxSentences,
+                                     @Value("${grammar.recognize.max-generated:100}") int maxGenerated) {
+        this.admission = admission;
+        this.budget = budget;
+        this.metrics = metrics;
+        this.maxSentences = maxSentences;
+        this.generated = new LinkedHashMap<>(16, 0.75f, true) { // Access order = LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Generated> eldest) {
+                return size() > maxGenerated;
+            }
+        };
+    }
+
+    public int maxSentences() {
+        return maxSentences;
+    }
+
+    public Map<String, Object> recognize(GrammarNormalizer.NormalizedGrammar grammar, List<String> sentences) {
+        return recognize(grammar, sentences, RecognizerMode.TABLE);
+    }
+
+    // One result per sentence, in input order, with totals and the time spent recognizing
+    public Map<String, Object> recognize(GrammarNormalizer.NormalizedGrammar grammar, List<String> sentences,
+                                         RecognizerMode mode) {
+        return admission.admit(() -> {
+            Generated compiled = mode == RecognizerMode.BYTECODE ? cachedRecognizer(grammar.fingerprint()) : null;
+            LL1Table table = compiled == null ? null : compiled.table();
+            if (table == null) {
+                Map<String, Object> error = new HashMap<>();
+                table = parseTable(grammar, error);
+                if (table == null) {
+                    return error;
+                }
+                if (mode == RecognizerMode.BYTECODE) {
+                    compiled = new Generated(table, RecognizerGenerator.generate(table));
+                    cacheRecognizer(grammar.fingerprint(), compiled);
+                }
+            }
+
+            long started = System.nanoTime();
+            LL1Recognizer recognizer = new LL1Recognizer(table, grammar.symbols(),
+                    compiled == null ? null : compiled.recognizers().get());
+            List<LL1Recognizer.Recognition> results = new ArrayList<>(sentences.size());
+            int accepted = 0;
+            for (String sentence : sentences) {
+                LL1Recognizer.Recognition recognition = recognizer.recognize(sentence == null ? "" : sentence);
+                if (recognition.accepted()) {
+                    accepted++;
+                }
+                results.add(recognition);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", GrammarAnalysisResult.SUCCESS);
+            response.put("mode", mode.key());
+            response.put("count", results.size());
+            response.put("accepted", accepted);
+            response.put("rejected", results.size() - accepted);
+            response.put("micros", (System.nanoTime() - started) / 1000);
+            response.put("results", results);
+            return response;
+        });
+    }
+
+    // The source of a standalone parser class for the grammar, or the error response if it has no usable table
+    public Map<String, Object> export(GrammarNormalizer.NormalizedGrammar grammar, String packageName,
+                                      String className) {
+        return admission.admit(() -> {
+            Map<String, Object> response = new HashMap<>();
+            LL1Table table = parseTable(grammar, response);
+            if (table != null) {
+                response.put("status", GrammarAnalysisResult.SUCCESS);
+                response.put("source", ParserSourceWriter.write(table, grammar.symbols(), packageName, className));
+            }
+            return response;
+        });
+    }
+
+    // Runs the analysis up to the parse table; on failure, including a grammar that is not LL(1),
+    // fills in the error response and returns null
+    private LL1Table parseTable(GrammarNormalizer.NormalizedGrammar grammar, Map<String, Object> error) {
+        RecursiveDescentParser parser = new RecursiveDescentParser(budget, grammar.symbols());
+        GrammarAnalysisResult result = metrics.record(GrammarMetrics.RECOGNIZE, grammar.rules().size(),
+                () -> parser.analyze(grammar.rules(), EnumSet.of(AnalysisStep.TABLE)));
+        if (!result.isSuccess()) {
+            error.putAll(GrammarController.responseBody(result, "json", grammar));
+            return null;
+        }
+        if (!result.conflictDetails().isEmpty()) { // First/Follow conflicts leave the analysis usable, not the table
+            error.putAll(GrammarController.responseBody(
+                    GrammarAnalysisResult.notLL1(result.conflicts(), result.conflictDetails()), "json", grammar));
+            return null;
+        }
+        return parser.parseTable();
+    }
+
+    private Generated cachedRecognizer(String fingerprint) {
+        synchronized (generated) {
+            return generated.get(fingerprint);
+        }
+    }
+
+    private void cacheRecognizer(String fingerprint, Generated recognizer) {
+        synchronized (generated) {
+            generated.put(fingerprint, recognizer);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of analysis results, keyed by the fingerprint of the normalized grammar.
+ * Entries are evicted least-recently-used first once the entry or byte limit is reached,
+ * and expire after the configured time-to-live.
+ */
+@Component
+public class GrammarResultCache {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos; // 0 disables expiry
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // Access order = LRU
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GrammarResultCache(@Value("${grammar.cache.max-entries:1000}") int maxEntries,
+                              @Value("${grammar.cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${grammar.cache.ttl:30m}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.isNegative() ? 0 : ttl.toNanos();
+    }
+
+    // Returns the cached result, or null on a miss or an expired entry
+    public synchronized GrammarAnalysisResult get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.createdAt > ttlNanos) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized void put(String key, GrammarAnalysisResult value) {
+        long size = sizeOf(key, value);
+        if (maxEntries <= 0 || size > maxBytes) {
+            return; // Would never fit
+        }
+        remove(key);
+        entries.put(key, new Entry(value, size, System.nanoTime()));
+        bytes += size;
+
+        // Evict least recently used entries until both limits hold again
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().size;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.size;
+        }
+    }
+
+    // Approximate heap footprint of the key and the result, plus entry overhead
+    private static long sizeOf(String key, GrammarAnalysisResult value) {
+        return 2L * key.length() + value.approximateBytes() + 96;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits();
+        long lookups = hitCount + misses();
+        return Map.of(
+                "entries", size(),
+                "bytes", bytes(),
+                "hits", hitCount,
+                "misses", misses(),
+                "evictions", evictions(),
+                "hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+    }
+
+    private static final class Entry {
+        final GrammarAnalysisResult value;
+        final long size;
+        final long createdAt;
+
+        Entry(GrammarAnalysisResult value, long size, long createdAt) {
+            this.value = value;
+            this.size = size;
+            this.createdAt = createdAt;
+        }
+    }
+}
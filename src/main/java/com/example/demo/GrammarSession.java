@@ -0,0 +1,85 @@
+package com.example.demo;
+
+import java.util.List;
+
+/**
+ * An editing session: one {@link RecursiveDescentParser} kept alive between requests, so
+ * each edited rule only recomputes the relations it affects. Access is serialized per session,
+ * and every analysis takes a permit from {@link AnalysisAdmission} like a stateless one, so
+ * sessions cannot get around the concurrency limit.
+ */
+public class GrammarSession {
+
+    private final String id;
+    private final RecursiveDescentParser parser;
+    private final AnalysisAdmission admission;
+    private volatile long lastAccess = System.nanoTime();
+
+    GrammarSession(String id, AnalysisBudget budget, AnalysisAdmission admission, SymbolMode symbols) {
+        this.id = id;
+        this.parser = new RecursiveDescentParser(budget, symbols);
+        this.admission = admission;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public synchronized int ruleCount() {
+        return parser.getGrammarRules().size();
+    }
+
+    long lastAccess() {
+        return lastAccess;
+    }
+
+    // Adds the initial rules; returns the analysis, or an error result if a rule is malformed.
+    // Like every method that analyzes, throws AnalysisRejectedException if too many analyses are running.
+    public synchronized GrammarAnalysisResult load(List<String> rules) {
+        touch();
+        return admission.admit(() -> parser.analyze(rules));
+    }
+
+    // Edits are only applied once admitted, and undone if their analysis exceeds the budget, so a
+    // rejected request leaves the rules as they were
+    public synchronized GrammarAnalysisResult replaceRule(String rule) {
+        touch();
+        return admission.admit(() -> {
+            RecursiveDescentParser.RuleSnapshot before = parser.snapshotRules();
+            if (!parser.replaceRule(rule)) {
+                return GrammarAnalysisResult.error("There was an error processing the rule: " + rule, List.of());
+            }
+            return analyzeOrRestore(before);
+        });
+    }
+
+    public synchronized GrammarAnalysisResult removeRule(String nonterminal) {
+        touch();
+        return admission.admit(() -> {
+            RecursiveDescentParser.RuleSnapshot before = parser.snapshotRules();
+            if (!parser.removeRule(nonterminal)) {
+                return GrammarAnalysisResult.error("There was an error removing the rule: no rule for " + nonterminal,
+                        List.of());
+            }
+            return analyzeOrRestore(before);
+        });
+    }
+
+    private GrammarAnalysisResult analyzeOrRestore(RecursiveDescentParser.RuleSnapshot before) {
+        try {
+            return parser.analyze();
+        } catch (AnalysisBudgetExceededException e) {
+            parser.restoreRules(before);
+            throw e;
+        }
+    }
+
+    public synchronized GrammarAnalysisResult analysis() {
+        touch();
+        return admission.admit(parser::analyze);
+    }
+
+    private void touch() {
+        lastAccess = System.nanoTime();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/grammar/sessions")
+public class GrammarSessionController {
+
+    private final GrammarSessionStore sessionStore;
+    private final GrammarMetrics metrics;
+
+    public GrammarSessionController(GrammarSessionStore sessionStore, GrammarMetrics metrics) {
+        this.sessionStore = sessionStore;
+        this.metrics = metrics;
+    }
+
+    // Starts an editing session with the given grammar and returns its first analysis.
+    // symbols=tokens reads this and every later rule of the session with whitespace-separated names.
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createSession(@RequestBody Map<String, List<String>> grammarInput,
+                                                             @RequestParam(defaultValue = "json") String format,
+                                                             @RequestParam(required = false) String symbols) {
+        List<String> rules = grammarInput.get("grammar");
+        if (rules == null || rules.isEmpty()) {
+            return error(HttpStatus.BAD_REQUEST, "Grammar input cannot be empty.");
+        }
+        SymbolMode symbolMode;
+        try {
+            symbolMode = SymbolMode.parse(symbols);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        GrammarSession session = sessionStore.create(symbolMode);
+        // Rules as read, not list elements: one element can hold several rules or repeat a nonterminal
+        GrammarAnalysisResult result = metrics.record(GrammarMetrics.SESSION, session::ruleCount, () -> session.load(rules));
+        sessionStore.add(session); // Only once admitted and within budget, so a rejected create evicts nothing
+        return ResponseEntity.status(HttpStatus.CREATED).body(result(session, result, format));
+    }
+
+    // Replaces one rule, e.g. {"rule": "A -> aB | ϵ"}, and returns the updated analysis
+    @PutMapping("/{sessionId}/rules")
+    public ResponseEntity<Map<String, Object>> replaceRule(@PathVariable String sessionId, @RequestBody Map<String, String> ruleInput,
+                                                           @RequestParam(defaultValue = "json") String format) {
+        GrammarSession session = sessionStore.get(sessionId);
+        if (session == null) {
+            return error(HttpStatus.NOT_FOUND, "Unknown or expired session: " + sessionId);
+        }
+        String rule = ruleInput.get("rule");
+        if (rule == null || rule.isBlank()) {
+            return error(HttpStatus.BAD_REQUEST, "Rule input cannot be empty.");
+        }
+        return ResponseEntity.ok(result(session, record(session, () -> session.replaceRule(rule)), format));
+    }
+
+    @DeleteMapping("/{sessionId}/rules/{nonterminal}")
+    public ResponseEntity<Map<String, Object>> removeRule(@PathVariable String sessionId, @PathVariable String nonterminal,
+                                                          @RequestParam(defaultValue = "json") String format) {
+        GrammarSession session = sessionStore.get(sessionId);
+        if (session == null) {
+            return error(HttpStatus.NOT_FOUND, "Unknown or expired session: " + sessionId);
+        }
+        return ResponseEntity.ok(result(session, record(session, () -> session.removeRule(nonterminal)), format));
+    }
+
+    @GetMapping("/{sessionId}/analysis")
+    public ResponseEntity<Map<String, Object>> getAnalysis(@PathVariable String sessionId,
+                                                           @RequestParam(defaultValue = "json") String format) {
+        GrammarSession session = sessionStore.get(sessionId);
+        if (session == null) {
+            return error(HttpStatus.NOT_FOUND, "Unknown or expired session: " + sessionId);
+        }
+        return ResponseEntity.ok(result(session, record(session, session::analysis), format));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> closeSession(@PathVariable String sessionId) {
+        return sessionStore.remove(sessionId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    // Edits re-analyze incrementally; the rule count is the one before the edit
+    private GrammarAnalysisResult record(GrammarSession session, Supplier<GrammarAnalysisResult> analysis) {
+        return metrics.record(GrammarMetrics.SESSION, session.ruleCount(), analysis);
+    }
+
+    private static Map<String, Object> result(GrammarSession session, GrammarAnalysisResult result, String format) {
+        Map<String, Object> response = GrammarController.responseBody(result, format);
+        response.put("sessionId", session.getId());
+        return response;
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
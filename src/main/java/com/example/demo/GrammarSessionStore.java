@@ -0,0 +1,79 @@
+package com.example.demo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store of editing sessions. Sessions idle for longer than the configured timeout
+ * are dropped, and the least recently used one makes room once the store is full.
+ */
+@Component
+public class GrammarSessionStore {
+
+    private final Map<String, GrammarSession> sessions = new ConcurrentHashMap<>();
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final AnalysisBudget budget;
+    private final AnalysisAdmission admission;
+
+    public GrammarSessionStore(@Value("${grammar.sessions.max:500}") int maxSessions,
+                               @Value("${grammar.sessions.idle-timeout:30m}") Duration idleTimeout,
+                               AnalysisBudget budget, AnalysisAdmission admission) {
+        if (maxSessions < 1) { // Nothing could ever be evicted to make room
+            throw new IllegalArgumentException("grammar.sessions.max must be at least 1, was " + maxSessions);
+        }
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.budget = budget;
+        this.admission = admission;
+    }
+
+    public GrammarSession create() {
+        return create(SymbolMode.CHARACTERS);
+    }
+
+    // A new session that reads every rule it is given in this symbol mode. It is not stored, and
+    // takes no slot, until add: a create whose first analysis is rejected leaves nothing behind.
+    public GrammarSession create(SymbolMode symbols) {
+        return new GrammarSession(UUID.randomUUID().toString(), budget, admission, symbols);
+    }
+
+    // Stores the session, making room by dropping the least recently used one if the store is full
+    public void add(GrammarSession session) {
+        removeIdleSessions();
+        while (sessions.size() >= maxSessions) {
+            sessions.values().stream()
+                    .min(Comparator.comparingLong(GrammarSession::lastAccess))
+                    .ifPresent(oldest -> sessions.remove(oldest.getId()));
+        }
+        sessions.put(session.getId(), session);
+    }
+
+    // Returns the session, or null if it does not exist or has been idle too long
+    public GrammarSession get(String id) {
+        GrammarSession session = sessions.get(id);
+        if (session != null && isIdle(session)) {
+            sessions.remove(id);
+            return null;
+        }
+        return session;
+    }
+
+    public boolean remove(String id) {
+        return sessions.remove(id) != null;
+    }
+
+    private void removeIdleSessions() {
+        sessions.values().removeIf(this::isIdle);
+    }
+
+    private boolean isIdle(GrammarSession session) {
+        return System.nanoTime() - session.lastAccess() > idleTimeoutNanos;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo;
+
+/**
+ * Thrown by {@link GrammarLexer} for a malformed rule, with the 1-based line and column
+ * of the token where reading failed.
+ */
+public class GrammarSyntaxException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final int column;
+    private final String reason;
+
+    public GrammarSyntaxException(int line, int column, String reason) {
+        super("Line " + line + ", column " + column + ": " + reason);
+        this.line = line;
+        this.column = column;
+        this.reason = reason;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    // The message without the position, e.g. "Expected '->' after S"
+    public String getReason() {
+        return reason;
+    }
+}
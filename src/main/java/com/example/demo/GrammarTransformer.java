@@ -0,0 +1,315 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites a grammar towards LL(1) form, so a grammar rejected for left recursion or common
+ * prefixes can be analyzed without a round of manual fixes:
+ * <ul>
+ *   <li>indirect left recursion is turned into direct left recursion by substituting, in rule
+ *       order, the alternatives of an earlier nonterminal of the same left-recursive cycle,</li>
+ *   <li>direct left recursion {@code A -> Aα | β} becomes {@code A -> βA'}, {@code A' -> αA' | ϵ},</li>
+ *   <li>alternatives sharing a prefix are left-factored, {@code A -> xy | xz} becoming
+ *       {@code A -> xA'}, {@code A' -> y | z}. The alternatives of a rule are put in a trie once,
+ *       and every group of alternatives below a shared prefix is factored from its subtree.</li>
+ * </ul>
+ * Left recursion behind a nullable nonterminal ({@code A -> BAx} with {@code B} nullable) and
+ * prefixes that only agree in their First sets are left as they are; the analysis of the
+ * rewritten grammar still reports them. New nonterminals are named {@code A'}, {@code A''}, ...
+ * for tokens, and take an unused capital letter for characters.
+ */
+public final class GrammarTransformer {
+
+    private final SymbolMode mode;
+    private final AnalysisBudget budget;
+    private final AnalysisDeadline deadline = new AnalysisDeadline();
+    private final Map<String, List<List<String>>> rules = new LinkedHashMap<>();
+    private final Map<String, List<String>> derived = new LinkedHashMap<>(); // New nonterminals per original one
+    private final Map<String, String> origins = new HashMap<>();               // And the other way round
+    private final Set<String> usedNames = new HashSet<>();
+    private final List<String> changes = new ArrayList<>();
+
+    /** The rewritten rules, start symbol first, and what was done to get them, in order. */
+    public record Transformation(List<String> rules, List<String> changes) {
+    }
+
+    // A trie node: the alternatives through it share the symbols on the path from the root
+    private static final class Node {
+        final Map<String, Node> children = new LinkedHashMap<>();
+        boolean ends;   // An alternative ends here,
+        int endsBefore; // before this many children, which keeps the order the alternatives came in
+        int count;      // Alternatives through this node
+    }
+
+    private GrammarTransformer(SymbolMode mode, AnalysisBudget budget) {
+        this.mode = mode;
+        this.budget = budget;
+    }
+
+    public static Transformation transform(List<String> rules, SymbolMode mode) {
+        return transform(rules, mode, AnalysisBudget.UNLIMITED);
+    }
+
+    // Throws GrammarSyntaxException if a rule cannot be read, AnalysisBudgetExceededException if the
+    // rewritten grammar grows past the budget, and IllegalArgumentException if no name is left for a
+    // new nonterminal.
+    public static Transformation transform(List<String> rules, SymbolMode mode, AnalysisBudget budget) {
+        GrammarTransformer transformer = new GrammarTransformer(mode, budget);
+        transformer.deadline.start(budget.maxTime());
+        try {
+            transformer.read(String.join("\n", rules));
+            transformer.eliminateLeftRecursion();
+            transformer.leftFactor();
+            return new Transformation(transformer.write(), List.copyOf(transformer.changes));
+        } finally {
+            transformer.deadline.clear();
+        }
+    }
+
+    private void read(String text) {
+        for (GrammarLexer.Rule rule : GrammarLexer.readRules(text, mode)) {
+            List<List<String>> alternatives = rules.computeIfAbsent(rule.nonterminal(), key -> new ArrayList<>());
+            derived.putIfAbsent(rule.nonterminal(), new ArrayList<>());
+            usedNames.add(rule.nonterminal());
+            for (String production : rule.productions()) {
+                List<String> symbols = List.of(CompiledGrammar.symbolsOf(production, mode));
+                usedNames.addAll(symbols);
+                if (!alternatives.contains(symbols)) {
+                    alternatives.add(symbols);
+                }
+            }
+        }
+    }
+
+    private void eliminateLeftRecursion() {
+        List<String> nonterminals = new ArrayList<>(rules.keySet());
+        Map<String, Integer> index = new LinkedHashMap<>();
+        for (String nonterminal : nonterminals) {
+            index.put(nonterminal, index.size());
+        }
+
+        // A begins-with B among the rules; the nonterminals of one strongly connected component form
+        // a left-recursive cycle
+        EdgeList beginsWith = new EdgeList();
+        for (String nonterminal : nonterminals) {
+            for (List<String> alternative : rules.get(nonterminal)) {
+                Integer first = alternative.isEmpty() ? null : index.get(alternative.get(0));
+                if (first != null) {
+                    beginsWith.add(index.get(nonterminal), first);
+                }
+            }
+        }
+        int[] cycle = new int[nonterminals.size()];
+        for (int[] component : StronglyConnectedComponents.of(beginsWith.toAdjacency(nonterminals.size()))) {
+            for (int member : component) {
+                cycle[member] = component[0];
+            }
+        }
+
+        for (int i = 0; i < nonterminals.size(); i++) {
+            String nonterminal = nonterminals.get(i);
+            for (int j = 0; j < i; j++) {
+                if (cycle[i] == cycle[j]) {
+                    substitute(nonterminal, nonterminals.get(j));
+                }
+            }
+            eliminateDirectLeftRecursion(nonterminal);
+        }
+    }
+
+    // Replaces every alternative A -> Bγ by B's alternatives followed by γ
+    private void substitute(String nonterminal, String leading) {
+        Set<List<String>> alternatives = new LinkedHashSet<>();
+        boolean substituted = false;
+        for (List<String> alternative : rules.get(nonterminal)) {
+            if (alternative.isEmpty() || !alternative.get(0).equals(leading)) {
+                alternatives.add(alternative);
+                continue;
+            }
+            substituted = true;
+            List<String> rest = alternative.subList(1, alternative.size());
+            for (List<String> replacement : rules.get(leading)) {
+                deadline.check();
+                List<String> combined = new ArrayList<>(replacement.size() + rest.size());
+                combined.addAll(replacement);
+                combined.addAll(rest);
+                alternatives.add(combined);
+            }
+        }
+        if (substituted) {
+            rules.put(nonterminal, new ArrayList<>(alternatives));
+            changes.add("Substituted the alternatives of " + leading + " where " + nonterminal + " begins with it: "
+                    + ruleText(nonterminal));
+        }
+    }
+
+    private void eliminateDirectLeftRecursion(String nonterminal) {
+        List<List<String>> recursive = new ArrayList<>(); // The α of A -> Aα
+        List<List<String>> others = new ArrayList<>();    // The β
+        for (List<String> alternative : rules.get(nonterminal)) {
+            if (alternative.isEmpty() || !alternative.get(0).equals(nonterminal)) {
+                others.add(alternative);
+            } else if (alternative.size() > 1) {
+                recursive.add(alternative.subList(1, alternative.size()));
+            } // A -> A derives nothing new and is dropped
+        }
+        if (recursive.isEmpty() && others.size() == rules.get(nonterminal).size()) {
+            return;
+        }
+        if (others.isEmpty()) {
+            changes.add("Left recursion of " + nonterminal + " was kept: every alternative begins with "
+                    + nonterminal);
+            return;
+        }
+        if (recursive.isEmpty()) {
+            rules.put(nonterminal, others);
+            changes.add("Removed the alternative " + nonterminal + " -> " + nonterminal + ": " + ruleText(nonterminal));
+            return;
+        }
+
+        String tail = newNonterminal(nonterminal);
+        List<List<String>> alternatives = new ArrayList<>();
+        for (List<String> beta : others) {
+            addAlternative(alternatives, append(beta, tail));
+        }
+        List<List<String>> tailAlternatives = new ArrayList<>();
+        for (List<String> alpha : recursive) {
+            addAlternative(tailAlternatives, append(alpha, tail));
+        }
+        tailAlternatives.add(List.of());
+        rules.put(nonterminal, alternatives);
+        rules.put(tail, tailAlternatives);
+        changes.add("Removed left recursion from " + nonterminal + ": " + ruleText(nonterminal) + ", "
+                + ruleText(tail));
+    }
+
+    private void leftFactor() {
+        for (String nonterminal : new ArrayList<>(rules.keySet())) {
+            Node root = new Node();
+            for (List<String> alternative : rules.get(nonterminal)) {
+                insert(root, alternative);
+            }
+            rules.put(nonterminal, factor(nonterminal, root));
+        }
+    }
+
+    private static void insert(Node root, List<String> alternative) {
+        Node node = root;
+        node.count++;
+        for (String symbol : alternative) {
+            node = node.children.computeIfAbsent(symbol, key -> new Node());
+            node.count++;
+        }
+        node.ends = true;
+        node.endsBefore = node.children.size();
+    }
+
+    // The alternatives below the node, with every group sharing a prefix moved into a new nonterminal
+    private List<List<String>> factor(String owner, Node node) {
+        List<List<String>> alternatives = new ArrayList<>();
+        for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+            deadline.check();
+            if (node.ends && alternatives.size() == node.endsBefore) {
+                alternatives.add(List.of());
+            }
+            List<String> prefix = new ArrayList<>();
+            prefix.add(entry.getKey());
+            Node child = entry.getValue();
+            // Follow the path as long as every alternative of the group goes the same way
+            while (!child.ends && child.children.size() == 1) {
+                Map.Entry<String, Node> only = child.children.entrySet().iterator().next();
+                prefix.add(only.getKey());
+                child = only.getValue();
+            }
+            if (child.count == 1) {
+                alternatives.add(prefix); // The whole alternative, no one shares it
+                continue;
+            }
+            String suffixes = newNonterminal(owner);
+            rules.put(suffixes, factor(suffixes, child));
+            alternatives.add(append(prefix, suffixes));
+            changes.add("Left-factored " + owner + " on " + symbolsText(prefix) + ": " + suffixes + " -> "
+                    + alternativesText(rules.get(suffixes)));
+        }
+        if (node.ends && alternatives.size() == node.endsBefore) {
+            alternatives.add(List.of());
+        }
+        return alternatives;
+    }
+
+    // A' for tokens, an unused capital letter for characters; listed after the nonterminal it came from
+    private String newNonterminal(String from) {
+        String name = null;
+        if (mode == SymbolMode.TOKENS) {
+            name = from + "'";
+            while (usedNames.contains(name)) {
+                name += "'";
+            }
+        } else {
+            for (char c = 'A'; c <= 'Z' && name == null; c++) {
+                name = usedNames.contains(String.valueOf(c)) ? null : String.valueOf(c);
+            }
+            for (char c = 'Α'; c <= 'Ω' && name == null; c++) { // Greek capitals once the Latin ones run out
+                name = !Character.isUpperCase(c) || usedNames.contains(String.valueOf(c)) ? null : String.valueOf(c);
+            }
+            if (name == null) {
+                throw new IllegalArgumentException("No unused capital letter is left to name a new nonterminal; "
+                        + "use symbols=tokens.");
+            }
+        }
+        usedNames.add(name);
+        String original = origins.getOrDefault(from, from);
+        origins.put(name, original);
+        derived.get(original).add(name);
+        budget.checkRules(rules.size() + 1);
+        return name;
+    }
+
+    // Each original rule followed by the rules that were split off it
+    private List<String> write() {
+        List<String> written = new ArrayList<>(rules.size());
+        for (Map.Entry<String, List<String>> entry : derived.entrySet()) {
+            written.add(ruleText(entry.getKey()));
+            for (String nonterminal : entry.getValue()) {
+                written.add(ruleText(nonterminal));
+            }
+        }
+        return written;
+    }
+
+    private String ruleText(String nonterminal) {
+        return nonterminal + " -> " + alternativesText(rules.get(nonterminal));
+    }
+
+    private String alternativesText(List<List<String>> alternatives) {
+        Set<String> texts = new LinkedHashSet<>();
+        for (List<String> alternative : alternatives) {
+            texts.add(symbolsText(alternative));
+        }
+        return String.join(" | ", texts);
+    }
+
+    private String symbolsText(List<String> symbols) {
+        return symbols.isEmpty() ? SymbolTable.EPSILON : String.join(mode == SymbolMode.TOKENS ? " " : "", symbols);
+    }
+
+    private static void addAlternative(List<List<String>> alternatives, List<String> alternative) {
+        if (!alternatives.contains(alternative)) {
+            alternatives.add(alternative);
+        }
+    }
+
+    private static List<String> append(List<String> symbols, String symbol) {
+        List<String> appended = new ArrayList<>(symbols.size() + 1);
+        appended.addAll(symbols);
+        appended.add(symbol);
+        return appended;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table-driven LL(1) recognizer: decides whether sentences belong to the language of a grammar
+ * with the {@link LL1Table} and an explicit {@code int} stack. Sentences are split into terminals
+ * like productions are (one character each, or whitespace-separated names in token mode) and
+ * encoded into a reused buffer. In character mode a terminal is found by an array lookup, so
+ * recognizing a sentence allocates nothing beyond the report of a rejection; in token mode each
+ * name is cut out as a substring and looked up in the symbol table. With a
+ * {@link GeneratedRecognizer} the sentences run through its generated methods instead, falling
+ * back to the table for input nested too deeply for the call stack. Not thread-safe; use one
+ * instance per thread.
+ */
+final class LL1Recognizer {
+
+    private static final int UNKNOWN = -1; // Input token that is not a terminal of the grammar
+
+    private final LL1Table table;
+    private final CompiledGrammar grammar;
+    private final SymbolMode mode;
+    private final GeneratedRecognizer generated; // Null to always walk the table
+    private final int[] terminalOfChar; // Terminal per character in character mode, UNKNOWN for others
+    private int[] tokens = new int[64];
+    private int[] offsets = new int[64]; // Where each token starts in the sentence
+    private int[] stack = new int[64];
+
+    /** Outcome for one sentence; a rejection says at which token (from 0) and column (from 1), and why. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Recognition(boolean accepted, Integer position, Integer column, String found,
+                              List<String> expected) {
+
+        static final Recognition ACCEPTED = new Recognition(true, null, null, null, null);
+    }
+
+    LL1Recognizer(LL1Table table, SymbolMode mode) {
+        this(table, mode, null);
+    }
+
+    LL1Recognizer(LL1Table table, SymbolMode mode, GeneratedRecognizer generated) {
+        this.table = table;
+        this.grammar = table.grammar();
+        this.mode = mode;
+        this.generated = generated;
+        int maxChar = -1;
+        if (mode == SymbolMode.CHARACTERS) {
+            for (int terminal : grammar.terminals()) {
+                maxChar = Math.max(maxChar, grammar.name(terminal).charAt(0));
+            }
+        }
+        this.terminalOfChar = new int[maxChar + 1];
+        Arrays.fill(terminalOfChar, UNKNOWN);
+        if (mode == SymbolMode.CHARACTERS) {
+            for (int terminal : grammar.terminals()) {
+                terminalOfChar[grammar.name(terminal).charAt(0)] = terminal;
+            }
+        }
+    }
+
+    Recognition recognize(String sentence) {
+        encode(sentence);
+        if (generated != null) {
+            try {
+                return runGenerated(sentence);
+            } catch (StackOverflowError e) {
+                // Nested deeper than the generated methods can recurse; the table keeps its own stack
+            }
+        }
+        return runTable(sentence);
+    }
+
+    private Recognition runGenerated(String sentence) {
+        generated.tokens = tokens;
+        generated.next = 0;
+        if (generated.recognize()) {
+            return Recognition.ACCEPTED;
+        }
+        int symbol = generated.failedSymbol;
+        int[] expected = table.rowOf(symbol) >= 0 ? table.expected(symbol) : new int[] {symbol};
+        return reject(sentence, generated.failedAt, expected);
+    }
+
+    private Recognition runTable(String sentence) {
+        int endMark = grammar.endMark();
+        int top = 0;
+        stack[top++] = endMark;
+        stack[top++] = grammar.start();
+        int next = 0;
+
+        while (true) {
+            int symbol = stack[--top];
+            int lookahead = tokens[next];
+            if (symbol == endMark) {
+                return lookahead == endMark ? Recognition.ACCEPTED : reject(sentence, next, new int[] {endMark});
+            }
+            if (!grammar.isDefined(symbol)) {
+                if (symbol != lookahead) {
+                    return reject(sentence, next, new int[] {symbol});
+                }
+                next++;
+                continue;
+            }
+            int number = lookahead == UNKNOWN ? LL1Table.NONE : table.predict(symbol, lookahead);
+            if (number == LL1Table.NONE) {
+                return reject(sentence, next, table.expected(symbol));
+            }
+            int[] rhs = grammar.rhs(number - 1);
+            if (top + rhs.length > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + rhs.length));
+            }
+            for (int i = rhs.length - 1; i >= 0; i--) {
+                stack[top++] = rhs[i];
+            }
+        }
+    }
+
+    // Fills tokens and offsets from the sentence, with the end mark after the last token
+    private void encode(String sentence) {
+        int count = 0;
+        int i = 0;
+        while (i < sentence.length()) {
+            char c = sentence.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (count + 1 >= tokens.length) {
+                tokens = Arrays.copyOf(tokens, tokens.length * 2);
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[count] = i;
+            if (mode == SymbolMode.TOKENS) {
+                int end = i + 1;
+                while (end < sentence.length() && !Character.isWhitespace(sentence.charAt(end))) {
+                    end++;
+                }
+                tokens[count++] = terminalId(sentence.substring(i, end));
+                i = end;
+            } else {
+                tokens[count++] = c < terminalOfChar.length ? terminalOfChar[c] : UNKNOWN;
+                i++;
+            }
+        }
+        offsets[count] = sentence.length();
+        tokens[count] = grammar.endMark();
+    }
+
+    private int terminalId(String name) {
+        int symbol = grammar.symbols().id(name);
+        return symbol >= 0 && symbol < grammar.symbolCount() && grammar.isUsed(symbol) && grammar.isTerminal(symbol)
+                ? symbol : UNKNOWN;
+    }
+
+    private Recognition reject(String sentence, int position, int[] expectedSymbols) {
+        String found;
+        if (tokens[position] == grammar.endMark()) {
+            found = SymbolTable.END_MARK;
+        } else if (mode == SymbolMode.TOKENS) {
+            int end = offsets[position];
+            while (end < sentence.length() && !Character.isWhitespace(sentence.charAt(end))) {
+                end++;
+            }
+            found = sentence.substring(offsets[position], end);
+        } else {
+            found = String.valueOf(sentence.charAt(offsets[position]));
+        }
+        List<String> expected = new ArrayList<>(expectedSymbols.length);
+        for (int symbol : expectedSymbols) {
+            expected.add(grammar.name(symbol));
+        }
+        return new Recognition(false, position, offsets[position] + 1, found, expected);
+    }
+}
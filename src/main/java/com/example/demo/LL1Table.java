@@ -0,0 +1,150 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The LL(1) parse table read off the Select sets, stored dense: one row per defined nonterminal in
+ * rule order, one column per terminal in display order followed by the end mark. Each cell holds the
+ * number of the production to expand (from 1, as in the Select step) or {@link #NONE}. When several
+ * productions of a nonterminal share a lookahead, the lowest number keeps the cell and the clash is
+ * recorded as a conflict, so the grammar is LL(1) exactly when there are none.
+ */
+final class LL1Table {
+
+    static final int NONE = 0;
+
+    private final CompiledGrammar grammar;
+    private final int[] rows;                  // Nonterminal per row
+    private final int[] columns;               // Terminal per column, the end mark last
+    private final int[] rowOf;                 // Row per symbol id, -1 for symbols without one
+    private final int[] columnOf;              // Column per symbol id, -1 for symbols without one
+    private final int[][] cells;
+    private final Map<Integer, BitSet> conflicts = new TreeMap<>(); // Productions per cell, keyed row-major
+
+    private LL1Table(CompiledGrammar grammar) {
+        this.grammar = grammar;
+        this.rows = grammar.nonterminals();
+        int[] terminals = grammar.terminals();
+        this.columns = Arrays.copyOf(terminals, terminals.length + 1);
+        columns[terminals.length] = grammar.endMark();
+
+        int symbolCount = Math.max(grammar.symbolCount(), grammar.endMark() + 1);
+        this.rowOf = new int[symbolCount];
+        this.columnOf = new int[symbolCount];
+        Arrays.fill(rowOf, -1);
+        Arrays.fill(columnOf, -1);
+        for (int row = 0; row < rows.length; row++) {
+            rowOf[rows[row]] = row;
+        }
+        for (int column = 0; column < columns.length; column++) {
+            columnOf[columns[column]] = column;
+        }
+        this.cells = new int[rows.length][columns.length];
+    }
+
+    // selectSets holds the Select set of each production, by production id
+    static LL1Table build(CompiledGrammar grammar, BitSet[] selectSets) {
+        LL1Table table = new LL1Table(grammar);
+        for (int production = 0; production < grammar.productionCount(); production++) {
+            int row = table.rowOf[grammar.lhs(production)];
+            BitSet select = selectSets[production];
+            for (int symbol = select.nextSetBit(0); symbol >= 0; symbol = select.nextSetBit(symbol + 1)) {
+                int column = symbol < table.columnOf.length ? table.columnOf[symbol] : -1;
+                if (column >= 0) {
+                    table.put(row, column, production + 1);
+                }
+            }
+        }
+        return table;
+    }
+
+    private void put(int row, int column, int number) {
+        int current = cells[row][column];
+        if (current == NONE) {
+            cells[row][column] = number;
+            return;
+        }
+        BitSet clash = conflicts.computeIfAbsent(row * columns.length + column, cell -> new BitSet());
+        clash.set(current);
+        clash.set(number);
+    }
+
+    // Number of the production to expand for the nonterminal on the lookahead, NONE for a syntax error
+    int predict(int nonterminal, int lookahead) {
+        if (nonterminal >= rowOf.length || lookahead >= columnOf.length) {
+            return NONE;
+        }
+        int row = rowOf[nonterminal];
+        int column = columnOf[lookahead];
+        return row < 0 || column < 0 ? NONE : cells[row][column];
+    }
+
+    // Terminals with an entry in the nonterminal's row, in column order
+    int[] expected(int nonterminal) {
+        int row = nonterminal < rowOf.length ? rowOf[nonterminal] : -1;
+        if (row < 0) {
+            return new int[0];
+        }
+        return Arrays.stream(columns).filter(terminal -> cells[row][columnOf[terminal]] != NONE).toArray();
+    }
+
+    int rowCount() {
+        return rows.length;
+    }
+
+    int columnCount() {
+        return columns.length;
+    }
+
+    int nonterminal(int row) {
+        return rows[row];
+    }
+
+    int terminal(int column) {
+        return columns[column];
+    }
+
+    int cell(int row, int column) {
+        return cells[row][column];
+    }
+
+    // Row of a defined nonterminal, -1 for other symbols
+    int rowOf(int symbol) {
+        return symbol < rowOf.length ? rowOf[symbol] : -1;
+    }
+
+    CompiledGrammar grammar() {
+        return grammar;
+    }
+
+    boolean isLL1() {
+        return conflicts.isEmpty();
+    }
+
+    GrammarAnalysisResult.ParseTable toResult() {
+        List<String> nonterminals = new ArrayList<>(rows.length);
+        for (int nonterminal : rows) {
+            nonterminals.add(grammar.name(nonterminal));
+        }
+        List<String> terminals = new ArrayList<>(columns.length);
+        for (int terminal : columns) {
+            terminals.add(grammar.name(terminal));
+        }
+        List<GrammarAnalysisResult.TableConflict> clashes = new ArrayList<>(conflicts.size());
+        for (Map.Entry<Integer, BitSet> conflict : conflicts.entrySet()) {
+            int cell = conflict.getKey();
+            clashes.add(new GrammarAnalysisResult.TableConflict(nonterminals.get(cell / columns.length),
+                    terminals.get(cell % columns.length), conflict.getValue().stream().boxed().toList()));
+        }
+        int[][] copy = new int[cells.length][];
+        for (int row = 0; row < cells.length; row++) {
+            copy[row] = cells[row].clone();
+        }
+        return new GrammarAnalysisResult.ParseTable(nonterminals, terminals, copy, clashes);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo;
+
+import java.util.Arrays;
+
+/**
+ * A set of symbol-id pairs that remembers insertion order. Membership is answered by a
+ * {@link BitRelation}, while the pair list keeps the order the results are displayed in.
+ */
+final class OrderedRelation {
+
+    private final BitRelation matrix;
+    private int[] pairs = new int[32]; // from0, to0, from1, to1, ...
+    private int size;
+
+    OrderedRelation(int symbolCount) {
+        this.matrix = new BitRelation(symbolCount);
+    }
+
+    // Returns true if the pair was not already present
+    boolean add(int from, int to) {
+        if (!matrix.add(from, to)) {
+            return false;
+        }
+        if (2 * size == pairs.length) {
+            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[2 * size] = from;
+        pairs[2 * size + 1] = to;
+        size++;
+        return true;
+    }
+
+    // Adds pairs given as a flat from0, to0, from1, to1, ... array
+    void addAll(int[] flatPairs) {
+        for (int i = 0; i + 1 < flatPairs.length; i += 2) {
+            add(flatPairs[i], flatPairs[i + 1]);
+        }
+    }
+
+    void addAll(OrderedRelation other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.from(i), other.to(i));
+        }
+    }
+
+    boolean contains(int from, int to) {
+        return matrix.contains(from, to);
+    }
+
+    // True if both relations hold the same pairs, regardless of order
+    boolean samePairs(OrderedRelation other) {
+        if (other == null || other.size != size || other.matrix.size() != matrix.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!other.contains(from(i), to(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int from(int index) {
+        return pairs[2 * index];
+    }
+
+    int to(int index) {
+        return pairs[2 * index + 1];
+    }
+
+    // Right sides grouped by left side, in pair order
+    int[][] indexByLeft() {
+        EdgeList edges = new EdgeList();
+        for (int i = 0; i < size; i++) {
+            edges.add(from(i), to(i));
+        }
+        return edges.toAdjacency(matrix.size());
+    }
+
+    // Left sides grouped by right side, in pair order
+    int[][] indexByRight() {
+        EdgeList edges = new EdgeList();
+        for (int i = 0; i < size; i++) {
+            edges.add(to(i), from(i));
+        }
+        return edges.toAdjacency(matrix.size());
+    }
+
+    // A copy of the membership matrix, e.g. as the starting point of a closure
+    BitRelation toMatrix() {
+        return matrix.copy();
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.demo;
+
+import javax.lang.model.SourceVersion;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a standalone Java recursive-descent parser for an LL(1) grammar: one method per
+ * nonterminal that switches on the lookahead token, with the cases read off the parse table (that
+ * is, the Select sets), and no dependency beyond the JDK. Like {@link RecognizerGenerator}, a
+ * production ending with its own nonterminal loops instead of recursing.
+ */
+final class ParserSourceWriter {
+
+    private final LL1Table table;
+    private final CompiledGrammar grammar;
+    private final SymbolMode mode;
+    private final String[] methodNames; // Per row
+    private final StringBuilder out = new StringBuilder();
+
+    private ParserSourceWriter(LL1Table table, SymbolMode mode) {
+        this.table = table;
+        this.grammar = table.grammar();
+        this.mode = mode;
+        this.methodNames = new String[table.rowCount()];
+        Set<String> taken = new HashSet<>();
+        for (int row = 0; row < table.rowCount(); row++) {
+            String name = "parse" + identifier(grammar.name(table.nonterminal(row)));
+            methodNames[row] = taken.add(name) ? name : name + "_" + row;
+            taken.add(methodNames[row]);
+        }
+    }
+
+    // True for a name the generated class can be given, e.g. ExpressionParser
+    static boolean isClassName(String name) {
+        return name != null && SourceVersion.isName(name) && !name.contains(".");
+    }
+
+    // True for an empty package name (the default package) or a valid one, e.g. com.acme.parsing
+    static boolean isPackageName(String name) {
+        return name == null || name.isEmpty() || SourceVersion.isName(name);
+    }
+
+    static String write(LL1Table table, SymbolMode mode, String packageName, String className) {
+        return new ParserSourceWriter(table, mode).writeClass(packageName, className);
+    }
+
+    private String writeClass(String packageName, String className) {
+        if (packageName != null && !packageName.isEmpty()) {
+            line(0, "package " + packageName + ";");
+            line(0, "");
+        }
+        line(0, "import java.util.ArrayList;");
+        line(0, "import java.util.Arrays;");
+        line(0, "import java.util.List;");
+        line(0, "");
+        line(0, "/**");
+        line(0, " * LL(1) recursive-descent parser generated from the grammar");
+        line(0, " * <pre>");
+        for (int row = 0; row < table.rowCount(); row++) {
+            int nonterminal = table.nonterminal(row);
+            List<String> productions = new ArrayList<>();
+            for (int production : grammar.productionsOf(nonterminal)) {
+                productions.add(grammar.productionText(production));
+            }
+            line(0, " * " + comment(grammar.name(nonterminal) + " -> " + String.join(" | ", productions)));
+        }
+        line(0, " * </pre>");
+        line(0, mode == SymbolMode.TOKENS
+                ? " * Input is read as whitespace-separated tokens."
+                : " * Input is read one character per token; whitespace is skipped.");
+        line(0, " */");
+        line(0, "public final class " + className + " {");
+        line(0, "");
+        line(1, "private static final String END = \"\";");
+        line(0, "");
+        line(1, "private final List<String> tokens;");
+        line(1, "private int position;");
+        line(0, "");
+        line(1, "public " + className + "(List<String> tokens) {");
+        line(2, "this.tokens = tokens;");
+        line(1, "}");
+        line(0, "");
+        line(1, "/** Parses the whole input, throwing a ParseException at the first token that does not fit. */");
+        line(1, "public static void parse(String input) {");
+        line(2, "new " + className + "(tokenize(input)).parse();");
+        line(1, "}");
+        line(0, "");
+        writeTokenize();
+        line(0, "");
+        line(1, "public void parse() {");
+        line(2, "position = 0;");
+        line(2, methodNames[table.rowOf(grammar.start())] + "();");
+        line(2, "if (!lookahead().equals(END)) {");
+        line(3, "throw unexpected(END);");
+        line(2, "}");
+        line(1, "}");
+        for (int row = 0; row < table.rowCount(); row++) {
+            line(0, "");
+            writeNonterminal(row);
+        }
+        line(0, "");
+        writeHelpers();
+        line(0, "}");
+        return out.toString();
+    }
+
+    private void writeTokenize() {
+        line(1, "public static List<String> tokenize(String input) {");
+        line(2, "List<String> tokens = new ArrayList<>();");
+        if (mode == SymbolMode.TOKENS) {
+            line(2, "for (String token : input.trim().split(\"\\\\s+\")) {");
+            line(3, "if (!token.isEmpty()) {");
+            line(4, "tokens.add(token);");
+            line(3, "}");
+            line(2, "}");
+        } else {
+            line(2, "for (int i = 0; i < input.length(); i++) {");
+            line(3, "if (!Character.isWhitespace(input.charAt(i))) {");
+            line(4, "tokens.add(String.valueOf(input.charAt(i)));");
+            line(3, "}");
+            line(2, "}");
+        }
+        line(2, "return tokens;");
+        line(1, "}");
+    }
+
+    private void writeNonterminal(int row) {
+        int nonterminal = table.nonterminal(row);
+        Map<Integer, List<Integer>> lookaheads = new LinkedHashMap<>(); // Per production, in column order
+        List<Integer> expected = new ArrayList<>();
+        for (int column = 0; column < table.columnCount(); column++) {
+            int number = table.cell(row, column);
+            if (number != LL1Table.NONE) {
+                lookaheads.computeIfAbsent(number, key -> new ArrayList<>()).add(table.terminal(column));
+                expected.add(table.terminal(column));
+            }
+        }
+        boolean loops = false;
+        for (int production : grammar.productionsOf(nonterminal)) {
+            int[] rhs = grammar.rhs(production);
+            loops |= rhs.length > 0 && rhs[rhs.length - 1] == nonterminal;
+        }
+
+        line(1, "private void " + methodNames[row] + "() {");
+        int indent = 2;
+        if (loops) {
+            line(2, "while (true) {");
+            indent = 3;
+        }
+        line(indent, "switch (lookahead()) {");
+        for (Map.Entry<Integer, List<Integer>> entry : lookaheads.entrySet()) {
+            List<Integer> terminals = entry.getValue();
+            int production = entry.getKey() - 1;
+            for (int i = 0; i < terminals.size(); i++) {
+                String label = "case " + literal(terminals.get(i)) + ":";
+                line(indent + 1, i == terminals.size() - 1
+                        ? label + " // " + comment(grammar.name(nonterminal) + " -> " + grammar.productionText(production))
+                        : label);
+            }
+            int[] rhs = grammar.rhs(production);
+            boolean continues = false;
+            for (int i = 0; i < rhs.length; i++) {
+                int symbol = rhs[i];
+                int symbolRow = table.rowOf(symbol);
+                if (symbolRow < 0) {
+                    line(indent + 2, "expect(" + literal(symbol) + ");");
+                } else if (symbol == nonterminal && i == rhs.length - 1) {
+                    continues = true;
+                } else {
+                    line(indent + 2, methodNames[symbolRow] + "();");
+                }
+            }
+            line(indent + 2, continues ? "continue;" : "return;");
+        }
+        line(indent + 1, "default:");
+        List<String> names = new ArrayList<>();
+        for (int terminal : expected) {
+            names.add(literal(terminal));
+        }
+        line(indent + 2, "throw unexpected(" + String.join(", ", names) + ");");
+        line(indent, "}");
+        if (loops) {
+            line(2, "}");
+        }
+        line(1, "}");
+    }
+
+    private void writeHelpers() {
+        line(1, "private String lookahead() {");
+        line(2, "return position < tokens.size() ? tokens.get(position) : END;");
+        line(1, "}");
+        line(0, "");
+        line(1, "private void expect(String terminal) {");
+        line(2, "if (!lookahead().equals(terminal)) {");
+        line(3, "throw unexpected(terminal);");
+        line(2, "}");
+        line(2, "position++;");
+        line(1, "}");
+        line(0, "");
+        line(1, "private ParseException unexpected(String... expected) {");
+        line(2, "return new ParseException(position, lookahead(), Arrays.asList(expected));");
+        line(1, "}");
+        line(0, "");
+        line(1, "/** The token at {@code position} (from 0) was found where one of {@code expected} should be; \"\" is the end. */");
+        line(1, "public static final class ParseException extends RuntimeException {");
+        line(0, "");
+        line(2, "private final int position;");
+        line(2, "private final String found;");
+        line(2, "private final List<String> expected;");
+        line(0, "");
+        line(2, "ParseException(int position, String found, List<String> expected) {");
+        line(3, "super(\"Unexpected \" + (found.isEmpty() ? \"end of input\" : \"'\" + found + \"'\") + \" at token \" + position");
+        line(5, "+ \", expected one of \" + expected);");
+        line(3, "this.position = position;");
+        line(3, "this.found = found;");
+        line(3, "this.expected = expected;");
+        line(2, "}");
+        line(0, "");
+        line(2, "public int getPosition() {");
+        line(3, "return position;");
+        line(2, "}");
+        line(0, "");
+        line(2, "public String getFound() {");
+        line(3, "return found;");
+        line(2, "}");
+        line(0, "");
+        line(2, "public List<String> getExpected() {");
+        line(3, "return expected;");
+        line(2, "}");
+        line(1, "}");
+    }
+
+    // The terminal as a Java string literal, the end mark as END
+    private String literal(int terminal) {
+        if (terminal == grammar.endMark()) {
+            return "END";
+        }
+        String name = grammar.name(terminal);
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    // Grammar text for a comment; doubled backslashes keep javac from reading unicode escapes in it
+    private static String comment(String text) {
+        return text.replace("\\", "\\\\").replace("*/", "*\\/");
+    }
+
+    // The name with everything that cannot be part of a Java identifier replaced by _
+    private static String identifier(String name) {
+        StringBuilder identifier = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            identifier.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        return identifier.toString();
+    }
+
+    private void line(int indent, String text) {
+        out.append("    ".repeat(indent)).append(text).append('\n');
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.demo;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Writes a recursive-descent recognizer for a grammar as bytecode, with the ASM copy that ships in
+ * spring-core, and defines it as a hidden class next to {@link GeneratedRecognizer}. Nonterminal
+ * {@code A} with row {@code r} becomes
+ * <pre>
+ * boolean n{r}() {
+ *     switch (tokens[next]) {
+ *         case ...: // the lookaheads that select a production, read off the parse table
+ *             match each symbol: terminals by comparing and advancing, nonterminals by calling their method
+ *             return true;
+ *         default:
+ *             return fail(A);
+ *     }
+ * }
+ * </pre>
+ * A production that ends with its own nonterminal ({@code X -> +TX}) jumps back to the switch
+ * instead of calling itself, so long right-recursive lists do not deepen the call stack. Hidden
+ * classes are unloaded once nothing refers to them.
+ */
+final class RecognizerGenerator {
+
+    private static final String BASE = "com/example/demo/GeneratedRecognizer";
+    private static final String NAME = "com/example/demo/GeneratedRecognizer$Grammar";
+
+    private RecognizerGenerator() {
+    }
+
+    // A factory for fresh instances of the recognizer class generated for the table
+    static Supplier<GeneratedRecognizer> generate(LL1Table table) {
+        byte[] bytecode = write(table);
+        MethodHandle constructor;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytecode, true);
+            constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(GeneratedRecognizer.class));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("Could not define the generated recognizer", e);
+        }
+        return () -> {
+            try {
+                return (GeneratedRecognizer) constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    static byte[] write(LL1Table table) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, NAME, null, BASE, null);
+
+        MethodVisitor constructor = writer.visitMethod(0, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, BASE, "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        writeRecognize(writer, table);
+        for (int row = 0; row < table.rowCount(); row++) {
+            writeNonterminal(writer, table, row);
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    // recognize(): the start symbol, then the end mark
+    private static void writeRecognize(ClassWriter writer, LL1Table table) {
+        CompiledGrammar grammar = table.grammar();
+        MethodVisitor method = writer.visitMethod(0, "recognize", "()Z", null, null);
+        method.visitCode();
+        Label failed = new Label();
+        int start = table.rowOf(grammar.start());
+        if (start >= 0) {
+            callNonterminal(method, start);
+            method.visitJumpInsn(Opcodes.IFEQ, failed);
+            matchTerminal(method, grammar.endMark(), false);
+            method.visitInsn(Opcodes.ICONST_1);
+            method.visitInsn(Opcodes.IRETURN);
+        } else {
+            fail(method, grammar.start());
+        }
+        method.visitLabel(failed);
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    private static void writeNonterminal(ClassWriter writer, LL1Table table, int row) {
+        CompiledGrammar grammar = table.grammar();
+        int nonterminal = table.nonterminal(row);
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PRIVATE, methodName(row), "()Z", null, null);
+        method.visitCode();
+
+        // One case per lookahead with an entry, pointing at the body of its production; lookupswitch
+        // wants its keys sorted
+        List<int[]> cases = new ArrayList<>();
+        Map<Integer, Label> bodies = new LinkedHashMap<>();
+        for (int column = 0; column < table.columnCount(); column++) {
+            int number = table.cell(row, column);
+            if (number != LL1Table.NONE) {
+                cases.add(new int[] {table.terminal(column), number});
+                bodies.computeIfAbsent(number, key -> new Label());
+            }
+        }
+        cases.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] keys = new int[cases.size()];
+        Label[] targets = new Label[cases.size()];
+        for (int i = 0; i < cases.size(); i++) {
+            keys[i] = cases.get(i)[0];
+            targets[i] = bodies.get(cases.get(i)[1]);
+        }
+
+        Label top = new Label();
+        Label noProduction = new Label();
+        Label failed = new Label();
+        method.visitLabel(top);
+        loadLookahead(method);
+        method.visitLookupSwitchInsn(noProduction, keys, targets);
+
+        for (Map.Entry<Integer, Label> body : bodies.entrySet()) {
+            method.visitLabel(body.getValue());
+            int[] rhs = grammar.rhs(body.getKey() - 1);
+            for (int i = 0; i < rhs.length; i++) {
+                int symbol = rhs[i];
+                int symbolRow = table.rowOf(symbol);
+                if (symbolRow < 0) {
+                    // A production that starts with a terminal is selected by that terminal alone
+                    matchTerminal(method, symbol, i == 0 && grammar.isTerminal(symbol));
+                } else if (symbol == nonterminal && i == rhs.length - 1) {
+                    method.visitJumpInsn(Opcodes.GOTO, top);
+                } else {
+                    callNonterminal(method, symbolRow);
+                    method.visitJumpInsn(Opcodes.IFEQ, failed);
+                }
+            }
+            if (rhs.length == 0 || rhs[rhs.length - 1] != nonterminal) {
+                method.visitInsn(Opcodes.ICONST_1);
+                method.visitInsn(Opcodes.IRETURN);
+            }
+        }
+
+        method.visitLabel(noProduction);
+        fail(method, nonterminal);
+        method.visitLabel(failed);
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    // if (tokens[next] != terminal) return fail(terminal); next++;
+    private static void matchTerminal(MethodVisitor method, int terminal, boolean alreadyMatched) {
+        if (!alreadyMatched) {
+            Label matched = new Label();
+            loadLookahead(method);
+            pushInt(method, terminal);
+            method.visitJumpInsn(Opcodes.IF_ICMPEQ, matched);
+            fail(method, terminal);
+            method.visitLabel(matched);
+        }
+        method.visitVarInsn(Opcodes.ALOAD, 0);
+        method.visitInsn(Opcodes.DUP);
+        method.visitFieldInsn(Opcodes.GETFIELD, BASE, "next", "I");
+        method.visitInsn(Opcodes.ICONST_1);
+        method.visitInsn(Opcodes.IADD);
+        method.visitFieldInsn(Opcodes.PUTFIELD, BASE, "next", "I");
+    }
+
+    // return fail(symbol);
+    private static void fail(MethodVisitor method, int symbol) {
+        method.visitVarInsn(Opcodes.ALOAD, 0);
+        pushInt(method, symbol);
+        method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BASE, "fail", "(I)Z", false);
+        method.visitInsn(Opcodes.IRETURN);
+    }
+
+    private static void callNonterminal(MethodVisitor method, int row) {
+        method.visitVarInsn(Opcodes.ALOAD, 0);
+        method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, NAME, methodName(row), "()Z", false);
+    }
+
+    // Pushes tokens[next]
+    private static void loadLookahead(MethodVisitor method) {
+        method.visitVarInsn(Opcodes.ALOAD, 0);
+        method.visitFieldInsn(Opcodes.GETFIELD, BASE, "tokens", "[I");
+        method.visitVarInsn(Opcodes.ALOAD, 0);
+        method.visitFieldInsn(Opcodes.GETFIELD, BASE, "next", "I");
+        method.visitInsn(Opcodes.IALOAD);
+    }
+
+    private static void pushInt(MethodVisitor method, int value) {
+        if (value >= -1 && value <= 5) {
+            method.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+
+    private static String methodName(int row) {
+        return "n" + row;
+    }
+}
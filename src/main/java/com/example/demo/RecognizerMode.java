@@ -0,0 +1,31 @@
+package com.example.demo;
+
+import java.util.Locale;
+
+/**
+ * How {@code /recognize} runs the LL(1) parse. {@link #TABLE}, the default, walks the parse table
+ * with an explicit stack. {@link #BYTECODE} runs a recursive-descent recognizer class generated for
+ * the grammar, which the JIT can specialize per nonterminal; it is cached by grammar fingerprint, so
+ * it pays off for grammars that are checked against many sentences.
+ */
+public enum RecognizerMode {
+    TABLE,
+    BYTECODE;
+
+    // Name used in the mode request parameter, e.g. "bytecode"
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // Null or blank means TABLE
+    public static RecognizerMode parse(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return TABLE;
+        }
+        try {
+            return valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown recognizer mode: " + mode.trim(), e);
+        }
+    }
+}
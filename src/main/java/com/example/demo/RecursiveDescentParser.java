@@ -1,133 +1,400 @@
 package com.example.demo;
 
+import com.example.demo.GrammarAnalysisResult.Closure;
+import com.example.demo.GrammarAnalysisResult.Conflict;
+import com.example.demo.GrammarAnalysisResult.ConflictType;
+import com.example.demo.GrammarAnalysisResult.NullableRule;
+import com.example.demo.GrammarAnalysisResult.Pair;
+import com.example.demo.GrammarAnalysisResult.ParseTable;
+import com.example.demo.GrammarAnalysisResult.ProductionSet;
+
 import java.util.*;
 
 public class RecursiveDescentParser {
 
+    private static final String PROCESSING_ERROR = "There was an error processing the grammar.";
+    static final int MAX_REPORTED_CONFLICTS = 100; // Past these, conflicts are only counted
+
     private Map<String, List<String>> grammarRules = new LinkedHashMap<>(); // Maintain insertion order
-    private Set<String> nullableNonterminals = new HashSet<>();
-    private List<String> nullableRules = new ArrayList<>();
-    private List<String> bdwRelationships = new ArrayList<>();
-    private List<String> bwRelationships = new ArrayList<>();
-    private List<String> transitiveRelationships = new ArrayList<>();
-    private List<String> reflexiveRelationships = new ArrayList<>();
-    private Map<String, Set<String>> firstSets = new HashMap<>(); // Store First sets
-    private List<String> fdbRelationships = new ArrayList<>();
-    private List<String> deoRelationships = new ArrayList<>();
-    private List<String> eoRelationships = new ArrayList<>();
-    private List<String> transitiveEORelationships = new ArrayList<>();
-    private List<String> reflexiveEORelationships = new ArrayList<>();
-    private List<String> fbRelationships = new ArrayList<>();
-    private Map<String, Set<String>> followSets = new HashMap<>(); // Declare followSets
+    private CompiledGrammar compiledGrammar; // Integer-encoded view of grammarRules, rebuilt when the rules change
+    private FirstFollowSolver solver; // Nullable, First and Follow sets of the compiled grammar
+    private OrderedRelation bdwRelationships;
+    private OrderedRelation bwRelationships;
+    private OrderedRelation transitiveRelationships;
+    private OrderedRelation reflexiveRelationships;
+    private OrderedRelation fdbRelationships;
+    private OrderedRelation deoRelationships;
+    private OrderedRelation eoRelationships;
+    private OrderedRelation transitiveEORelationships;
+    private OrderedRelation reflexiveEORelationships;
+    private FBJoin fbJoin; // EO ⋈ FDB ⋈ BW, joined once and shared by the FB steps
+    private OrderedRelation fbRelationships;
+    private BitSet[] followSets = new BitSet[0]; // Follow set per nullable nonterminal id
+    private BitSet[] selectSets = new BitSet[0]; // Select set per production id
+    private LL1Table parseTable;                 // Built from the Select sets in Step 13
+    private final List<String> conflicts = new ArrayList<>(); // Why the last LL(1) check failed
+    private final List<Conflict> conflictDetails = new ArrayList<>(); // The same, located at their rules
+    private int omittedConflicts; // Found after MAX_REPORTED_CONFLICTS were listed
+    private boolean omittedNotFirstFollow; // One of those makes the grammar unusable
+    private final Map<String, int[]> ruleLocations = new HashMap<>(); // Line and column each rule was read at
+    private boolean rulesEdited; // Lines then follow the current rule order instead of the text first read
+    private final AnalysisBudget budget;
+    private final SymbolMode symbolMode; // How production text is split into symbols
+    private final AnalysisDeadline deadline = new AnalysisDeadline(); // Running while an analysis is in progress
+
+    // Incremental state: after an edit only the nonterminals the edit affected are recomputed
+    private final Set<String> editedNonterminals = new HashSet<>(); // Rules changed since the last analysis
+    private FirstFollowSolver analyzedSolver; // Solver (and grammar) of the last completed analysis
+    private CompiledGrammar dirtyGrammar; // Grammar the dirty flags below were computed for
+    private boolean[] dirtyNonterminals = new boolean[0]; // Nonterminals whose BDW/FDB/DEO pairs are stale
+    private boolean symbolsChanged = true; // Nonterminals, terminals or their display order differ from the last analysis
+    private boolean bdwChanged = true; // BDW changed since BW was last closed over it
+    private boolean fdbChanged = true;
+    private boolean deoChanged = true; // DEO changed since EO was last closed over it
+    private int[][] bdwContribution = new int[0][]; // Flattened pairs each nonterminal contributes
+    private int[][] fdbContribution = new int[0][];
+    private int[][] deoContribution = new int[0][];
+
+    public RecursiveDescentParser() {
+        this(AnalysisBudget.UNLIMITED);
+    }
+
+    // Analyses of this parser abort with AnalysisBudgetExceededException once they exceed the budget
+    public RecursiveDescentParser(AnalysisBudget budget) {
+        this(budget, SymbolMode.CHARACTERS);
+    }
+
+    // With SymbolMode.TOKENS, rules are written with whitespace-separated names, e.g. "E -> T E'"
+    public RecursiveDescentParser(AnalysisBudget budget, SymbolMode symbolMode) {
+        this.budget = budget;
+        this.symbolMode = symbolMode;
+    }
     
 
-    // Method to accept grammar input as a string (e.g., from a REST API)
+    // Method to accept grammar input as a string (e.g., from a REST API).
+    // Throws GrammarSyntaxException, with the line and column, if a rule is malformed.
     public boolean inputGrammarFromString(String grammarInput) {
-        // Remove all `{...}` content entirely (Invisible content), but keep parts like "cat"
-        grammarInput = grammarInput.replaceAll("\\{[^}]*\\}", "");
-    
-        // Split input by newline to process each rule
-        String[] rules = grammarInput.split("\n");
-    
-        // Process each rule
-        for (String rule : rules) {
-            if (!parseGrammarRule(rule)) {
-                System.out.println("Error parsing rule: " + rule);
-                return false; // Parsing failed
-            }
-        }
+        addGrammarRules(grammarInput, 1);
     
         // Check if the grammar is LL(1)
         if (!isPotentiallyLL1(grammarRules)) {
-            System.out.println("The grammar is not LL(1).");
             return false; // Grammar is not LL(1)
         }
     
         return true; // Grammar parsed and validated successfully
     }
     
-    private boolean parseGrammarRule(String rule) {
-        String[] parts = rule.split("->");
-        if (parts.length != 2) {
-            System.out.println("Invalid format. Use 'Nonterminal -> Production'.");
-            return false; // Return false if the format is invalid
-        }
-    
-        String left = parts[0].trim();
-        String[] right = parts[1].split("\\|");
-    
-        grammarRules.putIfAbsent(left, new ArrayList<>());
-        for (String production : right) {
-            String trimmedProduction = production.trim();
-            
-            // Handle epsilon production
-            if (trimmedProduction.isEmpty() || trimmedProduction.equals("{}")) {
-                trimmedProduction = "ϵ"; // Replace empty production with epsilon
-            }
-    
-            // Add the production to the grammar rules map
-            grammarRules.get(left).add(trimmedProduction);
+    // Adds the rules of one input string without validating the grammar as a whole; its lines are
+    // numbered from firstLine. Throws GrammarSyntaxException if a rule is malformed.
+    private void addGrammarRules(String grammarInput, int firstLine) {
+        for (GrammarLexer.Rule rule : new GrammarLexer(grammarInput, firstLine, symbolMode).readRules()) {
+            addRule(rule);
         }
+    }
     
-        return true; // Return true if the rule was successfully parsed and added to the grammar
+    private void addRule(GrammarLexer.Rule rule) {
+        String left = rule.nonterminal();
+        ruleLocations.putIfAbsent(left, new int[] {rule.line(), rule.column()});
+        grammarRules.computeIfAbsent(left, key -> new ArrayList<>()).addAll(rule.productions());
+        compiledGrammar = null; // The rules changed, recompile before the next step
+        editedNonterminals.add(left);
     }
     
 
-    // Function to check if the grammar is potentially LL(1)
+    // Checks the whole grammar and records every reason it is not LL(1): direct and indirect left
+    // recursion, and First/First and First/Follow conflicts between the alternatives of a rule.
+    // False if any but a First/Follow conflict was found; those still leave every step computable.
     public boolean isPotentiallyLL1(Map<String, List<String>> grammar) {
-        for (String nonTerminal : grammar.keySet()) {
-            List<String> productions = grammar.get(nonTerminal);
+        CompiledGrammar compiled = grammar == grammarRules ? grammar() : CompiledGrammar.compile(grammar, symbolMode);
+        FirstFollowSolver firstSets = grammar == grammarRules ? solver() : new FirstFollowSolver(compiled);
+        int start = conflictDetails.size();
+
+        for (int nonTerminal : compiled.nonterminals()) {
+            int[] productions = compiled.productionsOf(nonTerminal);
 
-            // Check for direct left recursion
-            for (String production : productions) {
-                if (production.startsWith(nonTerminal)) {
-                    System.out.println("Direct left recursion detected in rule: " + nonTerminal + " -> " + production);
-                    return false; // Return false if direct left recursion is detected
+            // Direct left recursion, also behind nullable nonterminals (A -> BA with B nullable)
+            for (int production : productions) {
+                if (leftCorners(compiled, firstSets, production).get(nonTerminal)
+                        && roomForConflict(ConflictType.DIRECT_LEFT_RECURSION)) {
+                    addConflict(compiled, ConflictType.DIRECT_LEFT_RECURSION, nonTerminal, List.of(production + 1),
+                            List.of(), "Direct left recursion detected in rule: " + compiled.name(nonTerminal) + " -> "
+                                    + compiled.productionText(production));
                 }
             }
 
-            // Calculate First sets
-            Set<String> currentFirstSet = new HashSet<>();
-            for (String production : productions) {
-                Set<String> productionFirstSet = getFirstSet(production);
+            // First sets of the alternatives must be pairwise disjoint (ϵ is not part of them)
+            BitSet[] productionFirstSets = new BitSet[productions.length];
+            for (int i = 0; i < productions.length; i++) {
+                deadline.check(); // Pairwise, so a single rule with many alternatives is quadratic
+                productionFirstSets[i] = firstOfSequence(compiled, firstSets, compiled.rhs(productions[i]));
+                for (int j = 0; j < i; j++) {
+                    if (productionFirstSets[j].intersects(productionFirstSets[i])
+                            && roomForConflict(ConflictType.FIRST_FIRST)) {
+                        BitSet common = (BitSet) productionFirstSets[j].clone();
+                        common.and(productionFirstSets[i]);
+                        List<String> symbols = symbolNames(compiled, common);
+                        addConflict(compiled, ConflictType.FIRST_FIRST, nonTerminal,
+                                List.of(productions[j] + 1, productions[i] + 1), symbols,
+                                "Conflict detected: Productions for " + compiled.name(nonTerminal)
+                                        + " have a common prefix: " + String.join(", ", symbols));
+                    }
+                }
+            }
 
-                // Check for conflicts
-                for (String symbol : productionFirstSet) {
-                    // Skip epsilon in the conflict check
-                    if ("ϵ".equals(symbol)) {
+            // An alternative that derives ϵ is chosen on Follow, which no other alternative may start with
+            if (firstSets.isNullable(nonTerminal)) {
+                BitSet follow = firstSets.follow(nonTerminal);
+                for (int i = 0; i < productions.length; i++) {
+                    if (!derivesEpsilon(compiled, firstSets, compiled.rhs(productions[i]))) {
                         continue;
                     }
-                    if (currentFirstSet.contains(symbol)) {
-                        System.out.println("Conflict detected: Productions for " + nonTerminal + " have a common prefix: " + symbol);
-                        return false; // Return false if there's a conflict between productions
+                    deadline.check();
+                    for (int j = 0; j < productions.length; j++) {
+                        BitSet other = j == i ? null : derivesEpsilon(compiled, firstSets, compiled.rhs(productions[j]))
+                                ? (j < i ? null : follow) : productionFirstSets[j];
+                        if (other == null || !other.intersects(follow) || !roomForConflict(ConflictType.FIRST_FOLLOW)) {
+                            continue;
+                        }
+                        BitSet common = (BitSet) other.clone();
+                        common.and(follow);
+                        List<String> symbols = symbolNames(compiled, common);
+                        addConflict(compiled, ConflictType.FIRST_FOLLOW, nonTerminal,
+                                List.of(Math.min(productions[i], productions[j]) + 1,
+                                        Math.max(productions[i], productions[j]) + 1), symbols,
+                                "Conflict detected: " + compiled.name(nonTerminal) + " -> "
+                                        + compiled.productionText(productions[j]) + " starts with what follows "
+                                        + compiled.name(nonTerminal) + ": " + String.join(", ", symbols));
                     }
-                    currentFirstSet.add(symbol);
                 }
             }
         }
-        return true; // Grammar is LL(1)
+
+        findIndirectLeftRecursion(compiled, firstSets);
+        if (omittedConflicts > 0) {
+            conflicts.add("…and " + omittedConflicts + " more conflict(s)");
+        }
+        return !omittedNotFirstFollow && conflictDetails.subList(start, conflictDetails.size()).stream()
+                .allMatch(conflict -> conflict.type() == ConflictType.FIRST_FOLLOW);
     }
 
-    // Helper function to get the First set of a production
-    private Set<String> getFirstSet(String production) {
-        Set<String> firstSet = new HashSet<>();
-        String[] tokens = production.trim().split("\\s+");
+    // Nonterminals a production can start with: its symbols up to and including the first one that is not
+    // a nullable nonterminal
+    private static BitSet leftCorners(CompiledGrammar grammar, FirstFollowSolver solver, int production) {
+        BitSet corners = new BitSet();
+        for (int symbol : grammar.rhs(production)) {
+            if (!grammar.isNonTerminal(symbol)) {
+                break;
+            }
+            corners.set(symbol);
+            if (!solver.isNullable(symbol)) {
+                break;
+            }
+        }
+        return corners;
+    }
+
+    // Cycles of two or more nonterminals that begin with each other (A -> Bx, B -> Ay): the strongly
+    // connected components of the left-corner graph, found in linear time. Each is reported once, with a
+    // shortest cycle through its first nonterminal in rule order.
+    private void findIndirectLeftRecursion(CompiledGrammar grammar, FirstFollowSolver solver) {
+        EdgeList corners = new EdgeList();
+        for (int production = 0; production < grammar.productionCount(); production++) {
+            int lhs = grammar.lhs(production);
+            BitSet starts = leftCorners(grammar, solver, production);
+            for (int symbol = starts.nextSetBit(0); symbol >= 0; symbol = starts.nextSetBit(symbol + 1)) {
+                if (symbol != lhs) {
+                    corners.add(lhs, symbol);
+                }
+            }
+        }
+        int[][] successors = corners.toAdjacency(grammar.symbolCount());
+        // Searched in display order, not id order, so an edited session reports the cycle a fresh analysis would
+        for (int i = 0; i < successors.length; i++) {
+            successors[i] = Arrays.stream(successors[i]).boxed()
+                    .sorted(Comparator.comparingInt(grammar::rank))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        int[] position = new int[grammar.symbolCount()]; // Rule order
+        int[] nonterminals = grammar.nonterminals();
+        for (int i = 0; i < nonterminals.length; i++) {
+            position[nonterminals[i]] = i;
+        }
+        List<int[]> cycles = new ArrayList<>();
+        for (int[] component : StronglyConnectedComponents.of(successors)) {
+            if (component.length > 1) {
+                int first = component[0];
+                for (int member : component) {
+                    first = position[member] < position[first] ? member : first;
+                }
+                cycles.add(shortestCycle(successors, first));
+            }
+        }
+        cycles.sort(Comparator.comparingInt(cycle -> position[cycle[0]]));
+
+        for (int[] cycle : cycles) {
+            if (!roomForConflict(ConflictType.INDIRECT_LEFT_RECURSION)) {
+                continue;
+            }
+            List<String> names = new ArrayList<>(cycle.length + 1);
+            List<Integer> productions = new ArrayList<>(cycle.length);
+            for (int i = 0; i < cycle.length; i++) {
+                int from = cycle[i];
+                int to = cycle[(i + 1) % cycle.length];
+                names.add(grammar.name(from));
+                for (int production : grammar.productionsOf(from)) {
+                    if (leftCorners(grammar, solver, production).get(to)) {
+                        productions.add(production + 1);
+                        break;
+                    }
+                }
+            }
+            names.add(grammar.name(cycle[0]));
+            addConflict(grammar, ConflictType.INDIRECT_LEFT_RECURSION, cycle[0], productions, names,
+                    "Indirect left recursion detected: " + String.join(" -> ", names));
+        }
+    }
 
-        // Add the first symbol directly if it's a terminal or nullable (ϵ)
-        String firstToken = tokens[0];
-        if (Character.isLowerCase(firstToken.charAt(0)) || "ϵ".equals(firstToken)) {
-            firstSet.add(firstToken);
-        } else {
-            // If the first symbol is a non-terminal, retrieve its First set
-            if (grammarRules.containsKey(firstToken)) {
-                List<String> firstProductions = grammarRules.get(firstToken);
-                for (String subProduction : firstProductions) {
-                    firstSet.addAll(getFirstSet(subProduction));
+    // The vertices of a shortest cycle through start, start first, by breadth-first search
+    private static int[] shortestCycle(int[][] successors, int start) {
+        int[] previous = new int[successors.length];
+        Arrays.fill(previous, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int from = queue.poll();
+            for (int to : successors[from]) {
+                if (to == start) {
+                    ArrayDeque<Integer> cycle = new ArrayDeque<>();
+                    for (int node = from; node != start; node = previous[node]) {
+                        cycle.addFirst(node);
+                    }
+                    cycle.addFirst(start);
+                    return cycle.stream().mapToInt(Integer::intValue).toArray();
+                }
+                if (previous[to] == -1) {
+                    previous[to] = from;
+                    queue.add(to);
                 }
             }
         }
+        return new int[] {start};
+    }
+
+    // Whether a conflict of the type may still be listed; past MAX_REPORTED_CONFLICTS it is only counted,
+    // so the caller can skip building its message
+    private boolean roomForConflict(ConflictType type) {
+        if (conflictDetails.size() < MAX_REPORTED_CONFLICTS) {
+            return true;
+        }
+        omittedConflicts++;
+        omittedNotFirstFollow |= type != ConflictType.FIRST_FOLLOW;
+        return false;
+    }
+
+    private void addConflict(CompiledGrammar grammar, ConflictType type, int nonterminal, List<Integer> productions,
+                             List<String> symbols, String message) {
+        int[] location = ruleLocations.getOrDefault(grammar.name(nonterminal), new int[2]);
+        conflicts.add(message);
+        conflictDetails.add(new Conflict(type, grammar.name(nonterminal), location[0], location[1], productions,
+                symbols));
+    }
+
+    private static boolean derivesEpsilon(CompiledGrammar grammar, FirstFollowSolver solver, int[] symbols) {
+        for (int symbol : symbols) {
+            if (!grammar.isNonTerminal(symbol) || !solver.isNullable(symbol)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> symbolNames(CompiledGrammar grammar, BitSet symbols) {
+        return symbols.stream().boxed()
+                .sorted(Comparator.comparingInt(grammar::rank))
+                .map(grammar::name)
+                .toList();
+    }
+
+    // First set of a symbol sequence: the First sets of its symbols up to the first non-nullable one
+    private static BitSet firstOfSequence(CompiledGrammar grammar, FirstFollowSolver solver, int[] symbols) {
+        BitSet firstSet = new BitSet();
+        for (int symbol : symbols) {
+            firstSet.or(solver.first(symbol));
+            if (!grammar.isNonTerminal(symbol) || !solver.isNullable(symbol)) {
+                break;
+            }
+        }
+        return firstSet;
+    }
+
+    // Replaces every alternative of the rule's nonterminal, e.g. "A -> aB | ϵ", keeping its position
+    public boolean replaceRule(String rule) {
+        List<GrammarLexer.Rule> rules;
+        try {
+            rules = GrammarLexer.readRules(rule, symbolMode);
+        } catch (GrammarSyntaxException e) {
+            return false; // Invalid rule format
+        }
+        if (rules.isEmpty()) {
+            return false;
+        }
+        Set<String> replaced = new HashSet<>();
+        for (GrammarLexer.Rule replacement : rules) {
+            List<String> productions = grammarRules.get(replacement.nonterminal());
+            if (productions != null && replaced.add(replacement.nonterminal())) {
+                productions.clear();
+                ruleLocations.remove(replacement.nonterminal()); // Its column is the one in the new text
+            }
+            addRule(replacement);
+        }
+        rulesEdited = true;
+        return true;
+    }
+
+    // After edits the text first read no longer says where a rule is: the rules are numbered one
+    // per line in their current order, as if the session's grammar were sent again
+    private void numberRulesInOrder() {
+        int line = 1;
+        for (String nonterminal : grammarRules.keySet()) {
+            ruleLocations.get(nonterminal)[0] = line++;
+        }
+    }
+
+    // Removes the nonterminal's rule altogether
+    public boolean removeRule(String nonterminal) {
+        if (grammarRules.remove(nonterminal) == null) {
+            return false;
+        }
+        ruleLocations.remove(nonterminal);
+        rulesEdited = true;
+        compiledGrammar = null;
+        editedNonterminals.add(nonterminal);
+        return true;
+    }
+
+    // The rules as they are now, to go back to with restoreRules if an edit cannot be analyzed
+    RuleSnapshot snapshotRules() {
+        Map<String, List<String>> rules = new LinkedHashMap<>();
+        grammarRules.forEach((nonterminal, productions) -> rules.put(nonterminal, List.copyOf(productions)));
+        Map<String, int[]> locations = new HashMap<>();
+        ruleLocations.forEach((nonterminal, location) -> locations.put(nonterminal, location.clone()));
+        return new RuleSnapshot(rules, locations, rulesEdited);
+    }
+
+    record RuleSnapshot(Map<String, List<String>> rules, Map<String, int[]> locations, boolean edited) {
+    }
 
-        return firstSet; // Return the computed First set
+    // Puts back the rules of the snapshot, in their order; every rule then counts as edited
+    void restoreRules(RuleSnapshot snapshot) {
+        editedNonterminals.addAll(grammarRules.keySet());
+        grammarRules.clear();
+        snapshot.rules().forEach((nonterminal, productions) -> grammarRules.put(nonterminal, new ArrayList<>(productions)));
+        editedNonterminals.addAll(grammarRules.keySet());
+        ruleLocations.clear();
+        snapshot.locations().forEach((nonterminal, location) -> ruleLocations.put(nonterminal, location.clone()));
+        rulesEdited = snapshot.edited();
+        compiledGrammar = null;
     }
 
     // Getter for grammar rules
@@ -137,353 +404,266 @@ public class RecursiveDescentParser {
 
     // Methods for grammar input and parsing
     public boolean parseRule(String rule) {
-    String[] parts = rule.split("->");
-    if (parts.length != 2) {
-        return false; // Invalid rule format
+        List<GrammarLexer.Rule> rules;
+        try {
+            rules = GrammarLexer.readRules(rule, symbolMode);
+        } catch (GrammarSyntaxException e) {
+            return false; // Invalid rule format
+        }
+        if (rules.size() != 1) {
+            return false;
+        }
+        addRule(rules.get(0));
+        return isNullable(rules.get(0).nonterminal()); // Check if the nonterminal is nullable
+    }
+    
+    
+    // Integer-encoded grammar, compiled once and reused by every step until the rules change
+    private CompiledGrammar grammar() {
+        if (compiledGrammar == null) {
+            // Reuse the symbol ids of the last analysis so its per-nonterminal results stay valid
+            compiledGrammar = analyzedSolver == null ? CompiledGrammar.compile(grammarRules, symbolMode)
+                    : CompiledGrammar.compile(grammarRules, analyzedSolver.grammar().symbols(), symbolMode);
+        }
+        return compiledGrammar;
     }
 
-    String nonterminal = parts[0].trim();
-    String[] productions = parts[1].split("\\|");
-
-    grammarRules.putIfAbsent(nonterminal, new ArrayList<>());
-    for (String production : productions) {
-        grammarRules.get(nonterminal).add(production.trim());
+    // True if the nonterminal's BDW, FDB and DEO pairs have to be recomputed for the current grammar
+    private boolean isDirty(int nonterminal) {
+        if (dirtyGrammar != grammar()) {
+            findDirtyNonterminals();
+        }
+        return dirtyNonterminals[nonterminal];
     }
 
-    return isNullable(nonterminal); // Check if the nonterminal is nullable
-}
-    
-    //step 1
-    public boolean isNullable(String nonterminal) {
-        // Base case: If already determined nullable, return true
-        if (nullableNonterminals.contains(nonterminal)) {
-            return true;
+    // A nonterminal is dirty if its rule was edited, its own nullability changed (DEO relates it to
+    // itself) or one of the symbols in its productions changed nullability
+    private void findDirtyNonterminals() {
+        CompiledGrammar grammar = grammar();
+        FirstFollowSolver current = solver();
+        int symbolCount = grammar.symbolCount();
+        dirtyGrammar = grammar;
+        dirtyNonterminals = new boolean[symbolCount];
+        if (bdwContribution.length < symbolCount) {
+            bdwContribution = Arrays.copyOf(bdwContribution, symbolCount);
+            fdbContribution = Arrays.copyOf(fdbContribution, symbolCount);
+            deoContribution = Arrays.copyOf(deoContribution, symbolCount);
         }
-    
-        List<String> productions = grammarRules.get(nonterminal);
-        if (productions == null) return false; // No productions for this nonterminal
-    
-        for (String production : productions) {
-            if (production.equals("ϵ")) {
-                // Directly nullable
-                nullableRules.add(nonterminal + " → ϵ");
-                nullableNonterminals.add(nonterminal);
-                return true;
+
+        CompiledGrammar previous = analyzedSolver == null ? null : analyzedSolver.grammar();
+        if (previous == null || previous.symbols() != grammar.symbols()) {
+            Arrays.fill(dirtyNonterminals, true); // Nothing to reuse
+            symbolsChanged = true;
+            return;
+        }
+        // The display order covers the terminals, and also moves a nonterminal whose rule was removed
+        // while productions still use it; reused results are sorted by it
+        symbolsChanged = previous.symbolCount() != symbolCount
+                || !Arrays.equals(previous.nonterminals(), grammar.nonterminals())
+                || !Arrays.equals(previous.displayOrder(), grammar.displayOrder());
+
+        boolean[] nullabilityChanged = new boolean[symbolCount];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            boolean wasNullable = symbol < previous.symbolCount() && analyzedSolver.isNullable(symbol);
+            if (wasNullable != current.isNullable(symbol)) {
+                nullabilityChanged[symbol] = true;
+                dirtyNonterminals[symbol] = true;
             }
-    
-            // Recursive descent into the production
-            boolean allNullable = true;
-            for (char symbol : production.toCharArray()) {
-                if (!Character.isUpperCase(symbol) || !isNullable(String.valueOf(symbol))) {
-                    allNullable = false;
+        }
+        for (String nonterminal : editedNonterminals) {
+            int symbol = grammar.symbols().id(nonterminal);
+            if (symbol >= 0 && symbol < symbolCount) {
+                dirtyNonterminals[symbol] = true;
+            }
+        }
+        for (int production = 0; production < grammar.productionCount(); production++) {
+            for (int symbol : grammar.rhs(production)) {
+                if (nullabilityChanged[symbol]) {
+                    dirtyNonterminals[grammar.lhs(production)] = true;
                     break;
                 }
             }
-    
-            if (allNullable) {
-                nullableRules.add(nonterminal + " → " + production);
-                nullableNonterminals.add(nonterminal);
-                return true;
-            }
         }
-    
-        return false; // Not nullable
     }
-    
+
+    // Forgets the BW and EO closures and the FB join so the next steps rebuild them (for benchmarks of single steps)
+    void discardClosures() {
+        bdwChanged = true;
+        deoChanged = true;
+        fbJoin = null;
+    }
+
+    // Marks the current grammar as analyzed; later edits are measured against it. Only called after
+    // a run of every step, so all per-nonterminal contributions belong to the analyzed grammar
+    private void completeAnalysis() {
+        analyzedSolver = solver();
+        editedNonterminals.clear();
+    }
+
+    // Nullable, First and Follow sets, solved once per compiled grammar
+    private FirstFollowSolver solver() {
+        CompiledGrammar grammar = grammar();
+        if (solver == null || solver.grammar() != grammar) {
+            solver = new FirstFollowSolver(grammar, deadline);
+        }
+        return solver;
+    }
+
+    private boolean nullable(int symbol) {
+        return solver().isNullable(symbol);
+    }
+
+    //step 1
+    public boolean isNullable(String nonterminal) {
+        int symbol = grammar().symbols().id(nonterminal);
+        return symbol >= 0 && solver().isNullable(symbol);
+    }
         
     // Method to trigger nullable rule analysis for all nonterminals
     public void findNullableRules() {
-        for (String nonterminal : grammarRules.keySet()) {
-            isNullable(nonterminal);
-        }
+        solver();
     }
 
     
         // Step 2: Identify BDW relationships for each nonterminal (Rule 2)
         public void findBDWRelationships() {
-            for (String nonterminal : grammarRules.keySet()) {
-                List<String> productions = grammarRules.get(nonterminal);
-        
-                for (String production : productions) {
-                    // Skip productions that are nullable (ϵ)
-                    if (production.equals("ϵ")) {
-                        continue;
-                    }
-        
-                    // Start checking from the leftmost symbol in the production
-                    int i = 0;
-                    while (i < production.length()) {
-                        String symbol = String.valueOf(production.charAt(i));
-        
-                        // If it's a nonterminal
-                        if (Character.isUpperCase(symbol.charAt(0))) {
-                            // Add BDW relationship for the nonterminal symbol
-                            bdwRelationships.add(nonterminal + " BDW " + symbol);
+            CompiledGrammar grammar = grammar();
+            OrderedRelation relation = new OrderedRelation(grammar.symbolCount());
+            for (int nonterminal : grammar.nonterminals()) {
+                if (isDirty(nonterminal) || bdwContribution[nonterminal] == null) {
+                    bdwContribution[nonterminal] = computeBDWContribution(nonterminal);
+                }
+                relation.addAll(bdwContribution[nonterminal]);
+            }
+            bdwChanged |= symbolsChanged || !relation.samePairs(bdwRelationships);
+            bdwRelationships = relation;
+        }
         
-                            // If the symbol is nullable, check for the next symbol
-                            if (nullableNonterminals.contains(symbol)) {
-                                i++; // Skip to the next symbol to account for nullable nature
-                            } else {
-                                break; // Stop processing further if the current symbol is not nullable
-                            }
-                        } else {
-                            // If it's a terminal symbol, just add the BDW and break
-                            bdwRelationships.add(nonterminal + " BDW " + symbol);
-                            break;
-                        }
+        private int[] computeBDWContribution(int nonterminal) {
+            CompiledGrammar grammar = grammar();
+            EdgeList pairs = new EdgeList();
+            for (int production : grammar.productionsOf(nonterminal)) {
+                // Start checking from the leftmost symbol; ϵ productions have none
+                for (int symbol : grammar.rhs(production)) {
+                    // Every symbol up to the first non-nullable one begins the production
+                    pairs.add(nonterminal, symbol);
+                    if (!grammar.isNonTerminal(symbol) || !nullable(symbol)) {
+                        break;
                     }
                 }
             }
+            return pairs.toArray();
         }
 
         
         //step 3
         public void findBWRelationships() {
-            // Step 1: Copy BDW relationships to BW
-            for (String relationship : bdwRelationships) {
-                bwRelationships.add(relationship.replace("BDW", "BW"));
-            }
-        
-            // Step 2: Transitive closure (store transitive relationships separately)
-            boolean updated = true;
-            List<String> newTransitiveRelationships = new ArrayList<>(); // Store transitive relationships
-        
-            while (updated) {
-                updated = false;
-                List<String> newPairs = new ArrayList<>();
-        
-                // For each pair1, check if a transitive pair can be found
-                for (String pair1 : bwRelationships) {
-                    String[] parts1 = pair1.split(" BW ");
-                    String left1 = parts1[0];
-                    String right1 = parts1[1];
-        
-                    for (String pair2 : bwRelationships) {
-                        String[] parts2 = pair2.split(" BW ");
-                        String left2 = parts2[0];
-                        String right2 = parts2[1];
-        
-                        // If right1 of pair1 matches left2 of pair2, we can create a transitive relationship
-                        if (right1.equals(left2)) {
-                            String transitivePair = left1 + " BW " + right2;
-                            if (!bwRelationships.contains(transitivePair) && !newTransitiveRelationships.contains(transitivePair)) {
-                                newPairs.add(transitivePair);
-                                newTransitiveRelationships.add(transitivePair); // Track transitive relationships
-                                updated = true;
-                            }
-                        }
-                    }
-                }
-        
-                // Add new transitive pairs to the BW relationships
-                bwRelationships.addAll(newPairs);
+            if (!bdwChanged && bwRelationships != null) {
+                return; // Same BDW pairs and symbols as the last analysis, so the closure is unchanged
             }
+            CompiledGrammar grammar = grammar();
+            int symbolCount = grammar.symbolCount();
         
-            // Step 3: Reflexive closure based on BDW relationships only
-            Set<String> seenSymbols = new HashSet<>(); // Keep track of seen symbols to avoid duplicates
-        
-            // Add reflexive relationships for nonterminals from BDW relationships
-            for (String relationship : bdwRelationships) {
-                String[] parts = relationship.split(" BDW ");
-                String nonterminal = parts[0];
-        
-                // Add reflexive relationship if not already added and is a nonterminal and not epsilon
-                if (!seenSymbols.contains(nonterminal) && !nonterminal.equals("ϵ")) {
-                    String reflexive = nonterminal + " BW " + nonterminal;
-                    bwRelationships.add(reflexive);
-                    reflexiveRelationships.add(reflexive);
-                    seenSymbols.add(nonterminal);
-                }
+            // Step 1: Copy BDW relationships to BW
+            bwRelationships = new OrderedRelation(symbolCount);
+            fbJoin = null;
+            bwRelationships.addAll(bdwRelationships);
+        
+            // Step 2: Transitive closure over a bit matrix (store transitive relationships separately)
+            transitiveRelationships = computeTransitivePairs(bdwRelationships);
+            bwRelationships.addAll(transitiveRelationships);
+        
+            // Step 3: Reflexive closure for nonterminals that begin with something, and for terminals
+            reflexiveRelationships = new OrderedRelation(symbolCount);
+            for (int i = 0; i < bdwRelationships.size(); i++) {
+                int nonterminal = bdwRelationships.from(i);
+                reflexiveRelationships.add(nonterminal, nonterminal);
             }
-        
-            // Add reflexive relationships for terminals, excluding epsilon
-            for (String terminal : getTerminals()) {
-                if (!seenSymbols.contains(terminal) && !terminal.equals("ϵ")) {
-                    String reflexive = terminal + " BW " + terminal;
-                    bwRelationships.add(reflexive);
-                    reflexiveRelationships.add(reflexive);
-                    seenSymbols.add(terminal);
-                }
+            for (int terminal : grammar.terminals()) {
+                reflexiveRelationships.add(terminal, terminal);
             }
-        
-            // Store transitive relationships for later use or debugging
-            this.transitiveRelationships = newTransitiveRelationships;
+            bwRelationships.addAll(reflexiveRelationships);
+            bdwChanged = false; // Only once complete, so an aborted closure is redone next time
         }
 
-        private Set<String> getTerminals() {
-            Set<String> terminals = new HashSet<>();
-            for (List<String> productions : grammarRules.values()) {
-                for (String production : productions) {
-                    for (char symbol : production.toCharArray()) {
-                        if (Character.isLowerCase(symbol)) {
-                            terminals.add(String.valueOf(symbol));
-                        }
-                    }
+        // Closes the relation word-parallel and returns the pairs the closure added, in display order
+        private OrderedRelation computeTransitivePairs(OrderedRelation direct) {
+            CompiledGrammar grammar = grammar();
+            BitRelation closure = direct.toMatrix();
+            closure.closeTransitively(deadline);
+        
+            List<int[]> added = new ArrayList<>();
+            closure.forEach((from, to) -> {
+                if (!direct.contains(from, to)) {
+                    added.add(new int[] {from, to});
                 }
+            });
+            added.sort(Comparator.<int[]>comparingInt(pair -> grammar.rank(pair[0]))
+                    .thenComparingInt(pair -> grammar.rank(pair[1])));
+            OrderedRelation transitivePairs = new OrderedRelation(closure.size());
+            for (int[] pair : added) {
+                transitivePairs.add(pair[0], pair[1]);
             }
-            return terminals;
+            return transitivePairs;
         }
         
-        // Step 4: Method to compute First sets based on the productions
+        // Step 4: Method to compute First sets with the worklist solver
         public void computeFirstSets() {
-            for (String nonterminal : grammarRules.keySet()) {
-                firstSets.put(nonterminal, computeFirst(nonterminal));
-            }
-            
-            // New rule: Compute First sets based on BW relationships
-            computeFirstFromBW();
+            solver().firstSets();
         }
         
-        // Method to compute First for a single nonterminal
-        public Set<String> computeFirst(String nonterminal) {
-            Set<String> firstSet = new HashSet<>();
-        
-            // Get the list of productions for this nonterminal
-            List<String> productions = grammarRules.get(nonterminal);
-        
-            for (String production : productions) {
-                // Case 1: If the production is epsilon, add epsilon to the first set
-                if (production.equals("ϵ")) {
-                    firstSet.add("ϵ");
-                    continue;
-                }
-        
-                // Case 2: If the production starts with a terminal, add it to the first set
-                char firstChar = production.charAt(0);
-                if (Character.isLowerCase(firstChar)) {
-                    firstSet.add(String.valueOf(firstChar));
-                }
-                // Case 3: If the production starts with a nonterminal, recursively compute its First set
-                else if (Character.isUpperCase(firstChar)) {
-                    Set<String> subFirstSet = computeFirst(String.valueOf(firstChar));
-                    firstSet.addAll(subFirstSet);
-                    // If the nonterminal can derive epsilon, we need to check the next symbols
-                    if (subFirstSet.contains("ϵ")) {
-                        // Check the rest of the production for First sets
-                        for (int i = 1; i < production.length(); i++) {
-                            char nextChar = production.charAt(i);
-                            if (Character.isLowerCase(nextChar)) {
-                                firstSet.add(String.valueOf(nextChar));
-                                break;
-                            } else if (Character.isUpperCase(nextChar)) {
-                                Set<String> nextFirstSet = computeFirst(String.valueOf(nextChar));
-                                firstSet.addAll(nextFirstSet);
-                                if (!nextFirstSet.contains("ϵ")) {
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        
-            return firstSet;
-        }
-        
-        // New method to compute First sets based on BW relationships
-        private void computeFirstFromBW() {
-            for (String relationship : bwRelationships) {
-                String[] parts = relationship.split(" BW ");
-                String left = parts[0];
-                String right = parts[1];
-        
-                if (Character.isLowerCase(right.charAt(0))) { // Check if 'right' is a terminal
-                    firstSets.putIfAbsent(left, new HashSet<>());
-                    // Add only if it's not epsilon
-                    if (!right.equals("ϵ")) {
-                        firstSets.get(left).add(right);
-                    }
-                }
-            }
+        // First set of a single symbol; a terminal's First set is the terminal itself
+        private BitSet firstOf(int symbol) {
+            return solver().first(symbol);
         }
         
         // Step 5: Compute First of right side of each production
-        public void computeFirstOfRightSide(StringBuilder output) {
-            output.append("\nStep 5: Compute First of Right Side\n");
-        
-            for (Map.Entry<String, List<String>> entry : grammarRules.entrySet()) {
-                for (String production : entry.getValue()) {
-                    Set<String> firstOfRight = new HashSet<>();
-                    boolean allNullable = true; // Track if all symbols in production are nullable
-        
-                    output.append("First(").append(production).append(") = {");
-        
-                    for (int i = 0; i < production.length(); i++) {
-                        String symbol = String.valueOf(production.charAt(i));
-        
-                        // Retrieve First set for the current symbol
-                        Set<String> symbolFirst = firstSets.getOrDefault(symbol, new HashSet<>());
-        
-                        // Add all elements from First(symbol) except 'ϵ'
-                        firstOfRight.addAll(symbolFirst);
-                        firstOfRight.remove("ϵ"); // Avoid adding 'ϵ' initially for correct union behavior
-        
-                        // If the current symbol is not nullable, stop processing further symbols
-                        if (!nullableNonterminals.contains(symbol)) {
-                            allNullable = false;
-                            break;
-                        }
-                    }
-        
-                    // If all symbols in the production are nullable, add 'ϵ' to the First set
-                    if (allNullable) {
-                        firstOfRight.add("ϵ");
-                    }
-        
-                    // Format and append the First set with curly brackets
-                    output.append(String.join(", ", firstOfRight)).append("}\n");
-                }
+        public List<ProductionSet> computeFirstOfRightSide() {
+            CompiledGrammar grammar = grammar();
+            List<ProductionSet> firstOfRightSide = new ArrayList<>(grammar.productionCount());
+            for (int production = 0; production < grammar.productionCount(); production++) {
+                firstOfRightSide.add(firstForProduction(production));
             }
+            return firstOfRightSide;
         }
 
         // Step 6: Compute the relation Is Followed Directly By (FDB)
         public void computeFDBRelationships() {
-            fdbRelationships.clear();  // Clear any existing FDB relationships before computing new ones
-            Set<String> seenFDB = new HashSet<>();  // To avoid duplicate entries
-        
-            // Process all grammar rules
-            for (Map.Entry<String, List<String>> entry : grammarRules.entrySet()) {
-                List<String> productions = entry.getValue();
-        
-                for (String production : productions) {
-                    // Start from the leftmost symbol in the production
-                    processProduction(production, seenFDB);
+            CompiledGrammar grammar = grammar();
+            OrderedRelation relation = new OrderedRelation(grammar.symbolCount()); // Duplicates are dropped on insert
+            for (int nonterminal : grammar.nonterminals()) {
+                if (isDirty(nonterminal) || fdbContribution[nonterminal] == null) {
+                    EdgeList pairs = new EdgeList();
+                    for (int production : grammar.productionsOf(nonterminal)) {
+                        processProduction(grammar.rhs(production), pairs);
+                    }
+                    fdbContribution[nonterminal] = pairs.toArray();
                 }
+                relation.addAll(fdbContribution[nonterminal]);
             }
+            fdbChanged = symbolsChanged || !relation.samePairs(fdbRelationships);
+            if (fdbChanged) {
+                fbJoin = null;
+            }
+            fdbRelationships = relation;
         }
         
-        private void processProduction(String production, Set<String> seenFDB) {
-            for (int i = 0; i < production.length(); i++) {
-                String symbol = String.valueOf(production.charAt(i));
-        
-                // Process nonterminals and nullable nonterminals
-                if (Character.isUpperCase(symbol.charAt(0))) {
-                    // If the symbol is a nonterminal, check for direct FDB relationships
-                    if (i + 1 < production.length()) {
-                        String nextSymbol = String.valueOf(production.charAt(i + 1));
+        private void processProduction(int[] symbols, EdgeList pairs) {
+            CompiledGrammar grammar = grammar();
+            for (int i = 0; i < symbols.length; i++) {
+                int symbol = symbols[i];
         
-                        // If next symbol is nonterminal or terminal, add FDB relationship
-                        if (!seenFDB.contains(symbol + " FDB " + nextSymbol)) {
-                            fdbRelationships.add(symbol + " FDB " + nextSymbol);
-                            seenFDB.add(symbol + " FDB " + nextSymbol);
-                            System.out.println("Adding FDB: " + symbol + " FDB " + nextSymbol);
-                        }
-                    }
-        
-                    // If the symbol is a nullable nonterminal, process it with its surrounding symbols
-                    if (nullableNonterminals.contains(symbol)) {
-                        // Check if nullable nonterminal is between two symbols
-                        if (i - 1 >= 0 && i + 1 < production.length()) {
-                            String prevSymbol = String.valueOf(production.charAt(i - 1));
-                            String nextSymbol = String.valueOf(production.charAt(i + 1));
+                // Only nonterminals are followed by something
+                if (!grammar.isNonTerminal(symbol)) {
+                    continue;
+                }
         
-                            // If the previous symbol is a nonterminal and the next symbol is a terminal or nonterminal
-                            if (Character.isUpperCase(prevSymbol.charAt(0)) && !seenFDB.contains(prevSymbol + " FDB " + nextSymbol)) {
-                                fdbRelationships.add(prevSymbol + " FDB " + nextSymbol);
-                                seenFDB.add(prevSymbol + " FDB " + nextSymbol);
-                                System.out.println("Nullable nonterminal handling, Adding FDB: " + prevSymbol + " FDB " + nextSymbol);
-                            }
-                        }
+                // The next symbol directly follows this one, and so does every symbol after a run of
+                // nullable nonterminals in between
+                for (int j = i + 1; j < symbols.length; j++) {
+                    pairs.add(symbol, symbols[j]);
+                    if (!grammar.isNonTerminal(symbols[j]) || !nullable(symbols[j])) {
+                        break;
                     }
                 }
             }
@@ -491,626 +671,407 @@ public class RecursiveDescentParser {
                         
         // Step 7: Compute Direct End Of (DEO) Relationships
         public void computeDEORelationships() {
-            deoRelationships.clear(); // Clear any existing relationships
-        
-            List<String> allDEORelationships = new ArrayList<>(); // List to store relationships in order of rules
+            CompiledGrammar grammar = grammar();
+            OrderedRelation allDEORelationships = new OrderedRelation(grammar.symbolCount());
         
             // Step 1: Iterate through the grammar rules in the order they appear
-            for (Map.Entry<String, List<String>> entry : grammarRules.entrySet()) {
-                String nonterminal = entry.getKey();
-                List<String> productions = entry.getValue();
-        
-                List<String> ruleDEORelationships = new ArrayList<>(); // List to store relationships for this rule
-        
-                // Step 2: Process each production for the current nonterminal
-                for (String production : productions) {
-                    // Skip epsilon productions (A → ϵ)
-                    if (production.equals("ϵ")) continue;
-        
-                    // Step 3: Process the production from right to left
-                    String[] symbols = production.split("");
-        
-                    // Flag to track if a terminal or nonterminal DEO relation is added
-                    boolean foundDEO = false;
-        
-                    // Step 4: Iterate through the symbols in reverse order (right to left)
-                    for (int i = symbols.length - 1; i >= 0; i--) {
-                        String symbol = symbols[i];
-        
-                        // Case 1: If the symbol is a terminal, form the DEO relationship with the nonterminal on the left
-                        if (!Character.isUpperCase(symbol.charAt(0))) {
-                            ruleDEORelationships.add(symbol + " DEO " + nonterminal);
-                            foundDEO = true; // DEO relationship found
-                            break; // Stop after finding the terminal
-                        }
-        
-                        // Case 2: If the symbol is a nonterminal and it is not nullable, form DEO relationship
-                        if (Character.isUpperCase(symbol.charAt(0)) && !nullableNonterminals.contains(symbol)) {
-                            ruleDEORelationships.add(symbol + " DEO " + nonterminal);
-                            foundDEO = true; // DEO relationship found
-                            break; // Stop after finding the non-nullable nonterminal
-                        }
-                    }
-        
-                    // Optionally, if the nonterminal is nullable, propagate its DEO to itself
-                    if (nullableNonterminals.contains(nonterminal)) {
-                        ruleDEORelationships.add(nonterminal + " DEO " + nonterminal);
-                    }
+            for (int nonterminal : grammar.nonterminals()) {
+                if (isDirty(nonterminal) || deoContribution[nonterminal] == null) {
+                    deoContribution[nonterminal] = computeDEOContribution(nonterminal);
+                }
+                allDEORelationships.addAll(deoContribution[nonterminal]);
+            }
         
-                    // If a nullable nonterminal is found, we need to propagate to the terminal/nonterminal after it
-                    if (foundDEO) {
-                        // Now, check for the case where nullable nonterminal is in the middle
-                        for (int i = 0; i < symbols.length; i++) {
-                            String symbol = symbols[i];
+            // Sort relationships by their displayed form
+            List<int[]> sorted = new ArrayList<>(allDEORelationships.size());
+            for (int i = 0; i < allDEORelationships.size(); i++) {
+                sorted.add(new int[] {allDEORelationships.from(i), allDEORelationships.to(i)});
+            }
+            sorted.sort(Comparator.<int[], String>comparing(pair -> grammar.name(pair[0]))
+                    .thenComparing(pair -> grammar.name(pair[1])));
+            OrderedRelation relation = new OrderedRelation(grammar.symbolCount());
+            for (int[] pair : sorted) {
+                relation.add(pair[0], pair[1]);
+            }
+            deoChanged |= symbolsChanged || !relation.samePairs(deoRelationships);
+            deoRelationships = relation;
+        }
         
-                            // If a terminal follows a nullable nonterminal, we create a DEO relationship
-                            if (nullableNonterminals.contains(symbol) && i + 1 < symbols.length) {
-                                String nextSymbol = symbols[i + 1];
-                                if (!Character.isUpperCase(nextSymbol.charAt(0))) { // Terminal follows nullable nonterminal
-                                    ruleDEORelationships.add(symbol + " DEO " + nextSymbol);
-                                }
-                            }
-                        }
+        private int[] computeDEOContribution(int nonterminal) {
+            CompiledGrammar grammar = grammar();
+            EdgeList pairs = new EdgeList();
+            for (int production : grammar.productionsOf(nonterminal)) {
+                int[] symbols = grammar.rhs(production);
+                // Skip epsilon productions (A → ϵ)
+                if (symbols.length == 0) continue;
+        
+                // Step 2: The last symbol ends the production, and so does every symbol followed only by
+                // nullable nonterminals; the first symbol from the right that is not nullable stops the run
+                for (int i = symbols.length - 1; i >= 0; i--) {
+                    int symbol = symbols[i];
+                    pairs.add(symbol, nonterminal);
+                    if (!grammar.isNonTerminal(symbol) || !nullable(symbol)) {
+                        break;
                     }
                 }
-        
-                // After processing all productions for this rule, add the rule's DEO relationships to the overall list
-                allDEORelationships.addAll(ruleDEORelationships);
             }
-        
-            // Remove duplicates and sort relationships
-            deoRelationships = new ArrayList<>(new HashSet<>(allDEORelationships));
-            deoRelationships.sort(String::compareTo); // Optional: You can sort if required
+            return pairs.toArray();
         }
         
         //step 8
         public void computeEORelationships() {
-            // Step 1: Copy DEO relationships to EO
-            for (String deo : deoRelationships) {
-                eoRelationships.add(deo.replace("DEO", "EO"));
+            if (!deoChanged && eoRelationships != null) {
+                return; // Same DEO pairs and symbols as the last analysis, so the closure is unchanged
             }
+            CompiledGrammar grammar = grammar();
+            int symbolCount = grammar.symbolCount();
         
-            // Step 2: Transitive closure for EO
-            boolean updated = true;
-            List<String> newTransitiveEORelationships = new ArrayList<>(); // Track new transitive relationships
-        
-            while (updated) {
-                updated = false;
-                List<String> newPairs = new ArrayList<>();
-        
-                // For each pair1, check if a transitive pair can be found
-                for (String pair1 : eoRelationships) {
-                    String[] parts1 = pair1.split(" EO ");
-                    if (parts1.length != 2) continue; // Skip invalid pairs
-                    String left1 = parts1[0];
-                    String right1 = parts1[1];
-        
-                    for (String pair2 : eoRelationships) {
-                        String[] parts2 = pair2.split(" EO ");
-                        if (parts2.length != 2) continue; // Skip invalid pairs
-                        String left2 = parts2[0];
-                        String right2 = parts2[1];
-        
-                        // Create transitive relationship
-                        if (right1.equals(left2)) {
-                            String transitivePair = left1 + " EO " + right2;
-                            if (!eoRelationships.contains(transitivePair) && !newTransitiveEORelationships.contains(transitivePair)) {
-                                newPairs.add(transitivePair);
-                                newTransitiveEORelationships.add(transitivePair); // Track transitive relationships
-                                updated = true;
-                            }
-                        }
-                    }
-                }
+            // Step 1: Copy DEO relationships to EO
+            eoRelationships = new OrderedRelation(symbolCount);
+            fbJoin = null;
+            eoRelationships.addAll(deoRelationships);
         
-                // Add new transitive pairs to the EO relationships
-                eoRelationships.addAll(newPairs);
-            }
+            // Step 2: Transitive closure for EO over a bit matrix
+            transitiveEORelationships = computeTransitivePairs(deoRelationships);
+            eoRelationships.addAll(transitiveEORelationships);
         
             // Step 3: Reflexive closure for all nonterminals and terminals (excluding epsilon)
-            Set<String> seenSymbols = new HashSet<>();
-            
-            // Reflexive for nonterminals
-            for (String nonterminal : grammarRules.keySet()) {
-                String reflexive = nonterminal + " EO " + nonterminal;
-                if (!seenSymbols.contains(nonterminal) && !eoRelationships.contains(reflexive)) {
-                    eoRelationships.add(reflexive);
-                    reflexiveEORelationships.add(reflexive);
-                    seenSymbols.add(nonterminal);
+            reflexiveEORelationships = new OrderedRelation(symbolCount);
+            for (int nonterminal : grammar.nonterminals()) {
+                if (!eoRelationships.contains(nonterminal, nonterminal)) {
+                    reflexiveEORelationships.add(nonterminal, nonterminal);
                 }
             }
-        
-            // Reflexive for terminals (excluding epsilon)
-            for (String terminal : getTerminals()) {
-                String reflexive = terminal + " EO " + terminal;
-                if (!seenSymbols.contains(terminal) && !terminal.equals("ϵ") && !eoRelationships.contains(reflexive)) {
-                    eoRelationships.add(reflexive);
-                    reflexiveEORelationships.add(reflexive);
-                    seenSymbols.add(terminal);
+            for (int terminal : grammar.terminals()) {
+                if (!eoRelationships.contains(terminal, terminal)) {
+                    reflexiveEORelationships.add(terminal, terminal);
                 }
             }
-        
-            // Store transitive relationships for later use or debugging
-            this.transitiveEORelationships = newTransitiveEORelationships;
+            eoRelationships.addAll(reflexiveEORelationships);
+            deoChanged = false;
         }
         
         //step 9
-        public List<String> computeFBRelationships() {
-            List<String> fbRelationships = new ArrayList<>();
-        
-            // Iterate through each "X EO A" in the From EO list
-            for (String eo : eoRelationships) {
-                String[] eoParts = eo.split(" ");  // Split to get "X EO A" format
-                if (eoParts.length == 3) {
-                    String X = eoParts[0];  // "X" from "X EO A"
-                    String A = eoParts[2];  // "A" from "X EO A"
-        
-                    // Look for "A FDB Y" in the FDB list
-                    for (String fdb : fdbRelationships) {
-                        String[] fdbParts = fdb.split(" ");  // Split to get "A FDB Y" format
-                        if (fdbParts.length == 3 && fdbParts[0].equals(A)) {
-                            String Y = fdbParts[2];  // "Y" from "A FDB Y"
-        
-                            // Now look for "Y BW Z" in the From BW list
-                            for (String bw : bwRelationships) {
-                                String[] bwParts = bw.split(" ");  // Split to get "Y BW Z" format
-                                if (bwParts.length == 3 && bwParts[0].equals(Y)) {
-                                    String Z = bwParts[2];  // "Z" from "Y BW Z"
+        public void computeFBRelationships() {
+            fbJoin();
+        }
         
-                                    // Add the final relationship "X FB Z"
-                                    fbRelationships.add(X + " FB " + Z);
-                                }
-                            }
-                        }
-                    }
-                }
+        // X FB Z whenever X EO A, A FDB Y and Y BW Z; rebuilt only after one of its inputs changed
+        private FBJoin fbJoin() {
+            if (fbJoin == null) {
+                fbJoin = new FBJoin(eoRelationships, fdbRelationships, bwRelationships, grammar().symbolCount(), deadline);
             }
-        
-            // Return the list of FB relationships
-            return fbRelationships;
+            return fbJoin;
         }
         
-        
 
-        //step 10
-        // Step 10
         // Step 10: Compute FB Relationships with End Mark
-        public void computeFBRelationshipsWithEndMark(StringBuilder output) {
-            // List to store the final FB relationships (including FB ←)
-            fbRelationships.clear();  // Ensure we're working with a fresh list
-        
-            // Iterate through each "X EO A" in the From EO list
-            for (String eo : eoRelationships) {
-                String[] eoParts = eo.split(" ");  // Split to get "X EO A" format
-                if (eoParts.length == 3) {
-                    String X = eoParts[0];  // "X" from "X EO A"
-                    String A = eoParts[2];  // "A" from "X EO A"
-        
-                    // Look for "A FDB Y" in the FDB list
-                    for (String fdb : fdbRelationships) {
-                        String[] fdbParts = fdb.split(" ");  // Split to get "A FDB Y" format
-                        if (fdbParts.length == 3 && fdbParts[0].equals(A)) {
-                            String Y = fdbParts[2];  // "Y" from "A FDB Y"
-        
-                            // Now look for "Y BW Z" in the From BW list
-                            for (String bw : bwRelationships) {
-                                String[] bwParts = bw.split(" ");  // Split to get "Y BW Z" format
-                                if (bwParts.length == 3 && bwParts[0].equals(Y)) {
-                                    String Z = bwParts[2];  // "Z" from "Y BW Z"
-        
-                                    // Add the final relationship "X FB Z"
-                                    fbRelationships.add(X + " FB " + Z);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        
-            // Step 10: Extend FB relationships by adding FB ← if A EO S exists
-            for (String eo : eoRelationships) {
-                String[] eoParts = eo.split(" ");
-                if (eoParts.length == 3 && eoParts[2].equals("S")) {
-                    // If "A EO S" exists, add "A FB ←" only if A is a nonterminal
-                    String A = eoParts[0];
-                    if (isNonTerminal(A)) {  // Check if A is a nonterminal
-                        fbRelationships.add(A + " FB ←");
-                    }
-                }
-            }
-        
-            // Append Step 10 header and output
-            output.append("\nStep 10: Final FB Relationships with End Mark\n");
-            output.append("-------------------------------------------------------\n");
-        
-            if (fbRelationships.isEmpty()) {
-                output.append("No FB relationships found.\n");
-            } else {
-                // Display the final FB relationships (including FB ←)
-                for (String fb : fbRelationships) {
-                    output.append(fb).append("\n");
+        public void computeFBRelationshipsWithEndMark() {
+            CompiledGrammar grammar = grammar();
+            fbRelationships = new OrderedRelation(grammar.symbolCount());
+            fbRelationships.addAll(fbJoin().relation());
+        
+            // Extend FB relationships by adding A FB ← if A EO <start symbol> exists and A is a nonterminal
+            for (int i = 0; i < eoRelationships.size(); i++) {
+                int a = eoRelationships.from(i);
+                if (eoRelationships.to(i) == grammar.start() && grammar.isDefined(a)) {
+                    fbRelationships.add(a, grammar.endMark());
                 }
             }
         }
         
-        
-        
-        // Helper method to check if a symbol is a nonterminal
-        private boolean isNonTerminal(String symbol) {
-            // Check if the symbol exists as a key in the grammarRules map
-            return grammarRules.containsKey(symbol);
-        }
-        
-        // Method to display the final FB relationships (including FB ←)
-        public void displayFBResults(List<String> fbRelationships) {
-            System.out.println("\nStep 10: Final FB Relationships with End Mark");
-            System.out.println("--------------------------------------------------------------");
-            for (String fb : fbRelationships) {
-                System.out.println(fb);
-            }
-        }
-        
         //step 11
-        public void computeFollowSetForNullable(StringBuilder output) {
-            followSets.clear(); // Clear any previous data
-            output.append("\nStep 11: Compute Follow Set for Nullable Nonterminals\n");
+        public void computeFollowSetForNullable() {
+            CompiledGrammar grammar = grammar();
+            followSets = new BitSet[grammar.symbolCount()];
         
-            for (String nullable : nullableNonterminals) {
-                followSets.put(nullable, new HashSet<>()); // Initialize empty Follow set
+            for (int nonterminal : solver.nullableNonterminals()) {
+                followSets[nonterminal] = new BitSet(); // Initialize empty Follow set
             }
         
-            for (String fb : fbRelationships) { // Assuming fbRelationships is populated
-                String[] fbParts = fb.split(" ");
-                if (fbParts.length == 3) {
-                    String leftSymbol = fbParts[0];
-                    String rightSymbol = fbParts[2];
-        
-                    if (nullableNonterminals.contains(leftSymbol) && !isNonTerminal(rightSymbol)) {
-                        followSets.get(leftSymbol).add(rightSymbol); // Add terminal to Follow set
-                    }
-                    if (nullableNonterminals.contains(leftSymbol) && "←".equals(rightSymbol)) {
-                        followSets.get(leftSymbol).add("←"); // Add end marker
-                    }
+            // Terminals and the end mark that follow a nullable nonterminal
+            for (int i = 0; i < fbRelationships.size(); i++) {
+                int left = fbRelationships.from(i);
+                int right = fbRelationships.to(i);
+                if (nullable(left) && !grammar.isDefined(right)) {
+                    followSets[left].set(right);
                 }
             }
-        
-            for (Map.Entry<String, Set<String>> entry : followSets.entrySet()) {
-                output.append("Fol(").append(entry.getKey()).append(") = {")
-                      .append(String.join(", ", entry.getValue())).append("}\n");
-            }
         }
 
         //step 12
-        public void computeSelectSet(StringBuilder output) {
-            output.append("\nStep 12: Compute Select Set for Each Production\n");
-        
-            int productionNumber = 1;
-            for (Map.Entry<String, List<String>> entry : grammarRules.entrySet()) {
-                String nonTerminal = entry.getKey();
-        
-                for (String production : entry.getValue()) {
-                    Set<String> selectSet = new HashSet<>();
-        
-                    if (production.equals("ϵ")) { // Nullable rule
-                        selectSet.addAll(followSets.getOrDefault(nonTerminal, new HashSet<>()));
-                        output.append("Sel(").append(productionNumber).append(") = First(ϵ) U Fol(")
-                              .append(nonTerminal).append(") = {} U {")
-                              .append(String.join(", ", followSets.getOrDefault(nonTerminal, new HashSet<>())))
-                              .append("}\n");
-                    } else { // Non-nullable rule
-                        Set<String> firstOfProduction = computeFirstForProduction(production);
-                        selectSet.addAll(firstOfProduction);
-        
-                        output.append("Sel(").append(productionNumber).append(") = First(")
-                              .append(production).append(") = {")
-                              .append(String.join(", ", firstOfProduction)).append("}\n");
+        public List<ProductionSet> computeSelectSet() {
+            CompiledGrammar grammar = grammar();
+            List<ProductionSet> select = new ArrayList<>(grammar.productionCount());
+            selectSets = new BitSet[grammar.productionCount()];
+            for (int production = 0; production < grammar.productionCount(); production++) {
+                int nonTerminal = grammar.lhs(production);
+        
+                boolean[] derivesEpsilon = new boolean[1];
+                BitSet selectSet = computeFirstForProduction(production, derivesEpsilon);
+                if (derivesEpsilon[0]) { // Nullable rule: Sel = First(α) U Fol(A)
+                    if (followSets[nonTerminal] != null) {
+                        selectSet.or(followSets[nonTerminal]);
                     }
-        
-                    productionNumber++;
-                }
+                } // Non-nullable rule: Sel = First of the right side
+                selectSets[production] = selectSet;
+                select.add(new ProductionSet(production + 1, grammar.name(nonTerminal), grammar.productionText(production),
+                        grammar.rhs(production).length == 0, derivesEpsilon[0], symbolNames(selectSet)));
             }
+            return select;
+        }
+
+        //step 13
+        public ParseTable computeParseTable() {
+            parseTable = LL1Table.build(grammar(), selectSets);
+            return parseTable.toResult();
+        }
+
+        // The table of the last analysis that ran Step 13, for recognizing sentences; null before that
+        LL1Table parseTable() {
+            return parseTable;
         }
         
-        // Helper Method: Compute First of a production
-        private Set<String> computeFirstForProduction(String production) {
-            Set<String> firstSet = new HashSet<>();
+        // Helper Method: Compute First of a production, flagging ϵ when every symbol is nullable
+        private BitSet computeFirstForProduction(int production, boolean[] derivesEpsilon) {
+            CompiledGrammar grammar = grammar();
+            BitSet firstSet = new BitSet();
             boolean allNullable = true;
         
-            for (int i = 0; i < production.length(); i++) {
-                String symbol = String.valueOf(production.charAt(i));
-                Set<String> symbolFirst = firstSets.getOrDefault(symbol, new HashSet<>());
-        
-                firstSet.addAll(symbolFirst);
-                firstSet.remove("ϵ"); // Exclude ϵ temporarily
-        
-                if (!nullableNonterminals.contains(symbol)) {
+            for (int symbol : grammar.rhs(production)) {
+                firstSet.or(firstOf(symbol));
+                if (!grammar.isNonTerminal(symbol) || !nullable(symbol)) {
                     allNullable = false;
                     break;
                 }
             }
         
-            if (allNullable) {
-                firstSet.add("ϵ");
-            }
-        
+            derivesEpsilon[0] = allNullable;
             return firstSet;
         }
         
-        // Method to display the nullable rules and nonterminals
-        public void displayNullableResults(StringBuilder output) {
-            output.append("Nullable Rules:\n");
-            for (String rule : nullableRules) {
-                output.append(rule).append("\n");
-            }
+        private ProductionSet firstForProduction(int production) {
+            CompiledGrammar grammar = grammar();
+            boolean[] derivesEpsilon = new boolean[1];
+            BitSet firstSet = computeFirstForProduction(production, derivesEpsilon);
+            return new ProductionSet(production + 1, grammar.name(grammar.lhs(production)),
+                    grammar.productionText(production), grammar.rhs(production).length == 0,
+                    derivesEpsilon[0], symbolNames(firstSet));
+        }
         
-            output.append("\nNullable Nonterminals:\n");
-            for (String nonterminal : nullableNonterminals) {
-                output.append(nonterminal).append("\n");
-            }
+        // Names of the symbols of a set, in display order
+        private List<String> symbolNames(BitSet symbols) {
+            CompiledGrammar grammar = grammar();
+            return symbols.stream().boxed()
+                          .sorted(Comparator.comparingInt(grammar::rank))
+                          .map(grammar::name)
+                          .toList();
         }
-    
-        // Method to display the BDW relationships in the order of input rules
-        public void displayBDWResults(StringBuilder output) {
-            for (String relationship : bdwRelationships) {
-                output.append(relationship).append("\n");
+        
+        // The pairs of the relation by name, in relation order
+        private List<Pair> pairs(OrderedRelation relation) {
+            CompiledGrammar grammar = grammar();
+            List<Pair> pairs = new ArrayList<>(relation.size());
+            for (int i = 0; i < relation.size(); i++) {
+                pairs.add(new Pair(grammar.name(relation.from(i)), grammar.name(relation.to(i))));
             }
+            return pairs;
         }
-    
-        // Method to display the BW relationships with categories
-        public void displayBWResults(StringBuilder output) {
-            output.append("From BDW Relationships:\n");
-            for (String relationship : bwRelationships) {
-                if (bdwRelationships.contains(relationship.replace("BW", "BDW"))) {
-                    output.append(relationship).append("\n");
-                }
-            }
         
-            output.append("\nTransitive Relationships:\n");
-            for (String relationship : transitiveRelationships) {
-                output.append(relationship).append("\n");
+        // Nullable nonterminals in the order they were found, with the production that made them nullable
+        private List<NullableRule> nullableRules() {
+            CompiledGrammar grammar = grammar();
+            List<NullableRule> rules = new ArrayList<>();
+            for (int nonterminal : solver.nullableNonterminals()) {
+                int production = solver.nullableProduction(nonterminal);
+                rules.add(new NullableRule(grammar.name(nonterminal),
+                        grammar.rhs(production).length == 0 ? SymbolTable.EPSILON : grammar.productionText(production)));
             }
-        
-            output.append("\nReflexive Relationships:\n");
-            for (String relationship : reflexiveRelationships) {
-                output.append(relationship).append("\n");
+            return rules;
+        }
+
+        // First sets of the defined nonterminals and the terminals, ϵ excluded
+        private Map<String, List<String>> firstSetsByName() {
+            CompiledGrammar grammar = grammar();
+            Map<String, List<String>> first = new LinkedHashMap<>();
+            for (int symbol : grammar.displayOrder()) {
+                if (grammar.isUsed(symbol)) {
+                    first.put(grammar.name(symbol), symbolNames(firstOf(symbol)));
+                }
             }
+            return first;
         }
 
-        // Method to display the First sets, excluding epsilon
-        public void displayFirstSets(StringBuilder output) {
-            
-            for (Map.Entry<String, Set<String>> entry : firstSets.entrySet()) {
-                Set<String> filteredFirstSet = new HashSet<>(entry.getValue());
-                filteredFirstSet.remove("ϵ"); // Exclude epsilon
-        
-                // Append results to the output in a readable format
-                output.append("First(").append(entry.getKey()).append(") = {");
-                output.append(String.join(", ", filteredFirstSet));
-                output.append("}\n");
+        private Map<String, List<String>> followSetsByName() {
+            CompiledGrammar grammar = grammar();
+            Map<String, List<String>> follow = new LinkedHashMap<>();
+            for (int nonterminal : grammar.nonterminals()) {
+                if (followSets[nonterminal] != null) {
+                    follow.put(grammar.name(nonterminal), symbolNames(followSets[nonterminal]));
+                }
             }
+            return follow;
         }
         
-        //method to display fdb
-        public void displayFDBResults(StringBuilder output) {
-            
-            for (String fdb : fdbRelationships) {
-                output.append(fdb).append("\n");
-            }
+        public String runParser(List<String> grammarInput) {
+            return AnalysisTextRenderer.render(analyze(grammarInput));
         }
         
-        // Display DEO Relationships
-        public void displayDEORelationships(StringBuilder output) {
-            
-            for (String relationship : deoRelationships) {
-                output.append(relationship).append("\n");
-            }
+        // Analyzes the current rules and renders the text report
+        public String runAnalysis() {
+            return AnalysisTextRenderer.render(analyze());
         }
         
-        // Method to display the EO relationships with categories (for Step 8)
-        public String displayEORelationships() {
-            StringBuilder output = new StringBuilder();
-            
-            // Display relationships from DEO (converted to EO)
-            output.append("\nFrom DEO Relationships:\n");
-            if (deoRelationships.isEmpty()) {
-                output.append("No DEO relationships found.\n");
-            } else {
-                for (String relationship : deoRelationships) {
-                    output.append(relationship.replace("DEO", "EO")).append("\n");
-                }
-            }
+        public GrammarAnalysisResult analyze(List<String> grammarInput) {
+            return analyze(grammarInput, AnalysisStep.ALL);
+        }
         
-            // Display transitive relationships
-            output.append("\nTransitive Relationships:\n");
-            if (transitiveEORelationships.isEmpty()) {
-                output.append("No transitive relationships found.\n");
-            } else {
-                for (String transitive : transitiveEORelationships) {
-                    output.append(transitive).append("\n");
-                }
-            }
+        // Adds the rules and runs the requested steps, plus the steps they depend on
+        public GrammarAnalysisResult analyze(List<String> grammarInput, Set<AnalysisStep> steps) {
+            return analyze(grammarInput, steps, null);
+        }
         
-            // Display reflexive relationships
-            output.append("\nReflexive Relationships:\n");
-            if (reflexiveEORelationships.isEmpty()) {
-                output.append("No reflexive relationships found.\n");
-            } else {
-                for (String reflexive : reflexiveEORelationships) {
-                    output.append(reflexive).append("\n");
+        public GrammarAnalysisResult analyze(List<String> grammarInput, Set<AnalysisStep> steps, AnalysisListener listener) {
+            // Step 1: Process each grammar rule, then validate and analyze the whole grammar once.
+            // Lines are numbered across the whole input, so an error points into what the client sent.
+            int line = 1;
+            for (String rule : grammarInput) {
+                try {
+                    addGrammarRules(rule, line);
+                } catch (GrammarSyntaxException e) {
+                    return GrammarAnalysisResult.invalidRule(PROCESSING_ERROR, rule, e);
                 }
+                line += (int) rule.chars().filter(c -> c == '\n').count() + 1;
             }
+            return analyze(steps, listener);
+        }
         
-            return output.toString();
+        public GrammarAnalysisResult analyze() {
+            return analyze(AnalysisStep.ALL);
         }
         
+        // Analyzes the current rules; after edits only the affected relations are recomputed.
+        // The result only holds the requested steps, even if more had to be computed for them.
+        public GrammarAnalysisResult analyze(Set<AnalysisStep> steps) {
+            return analyze(steps, null);
+        }
         
-        public void displayFBResults(StringBuilder output) {
-            // Display EO Relationships
-            output.append("\nFrom EO Relationships:\n");
-            if (eoRelationships.isEmpty()) {
-                output.append("No EO relationships found.\n");
-            } else {
-                for (String relationship : eoRelationships) {
-                    output.append(relationship).append("\n");
-                }
+        // As above, and hands each requested step to the listener as soon as it is computed
+        // Throws AnalysisBudgetExceededException if the grammar or the analysis exceeds the budget.
+        public GrammarAnalysisResult analyze(Set<AnalysisStep> steps, AnalysisListener listener) {
+            budget.checkRules(grammarRules.size());
+            budget.checkSymbols(grammar().displayOrder().length);
+            budget.checkProductions(grammar().productionCount());
+            deadline.start(budget.maxTime());
+            try {
+                return runSteps(steps, listener);
+            } finally {
+                deadline.clear();
             }
+        }
         
-            // Display FDB Relationships
-            output.append("\nFrom FDB Relationships:\n");
-            if (fdbRelationships.isEmpty()) {
-                output.append("No FDB relationships found.\n");
-            } else {
-                for (String relationship : fdbRelationships) {
-                    output.append(relationship).append("\n");
-                }
+        private GrammarAnalysisResult runSteps(Set<AnalysisStep> steps, AnalysisListener listener) {
+            long started = System.nanoTime();
+            conflicts.clear();
+            conflictDetails.clear();
+            omittedConflicts = 0;
+            omittedNotFirstFollow = false;
+            if (rulesEdited) {
+                numberRulesInOrder();
             }
-        
-            // Display BW Relationships
-            output.append("\nFrom BW Relationships:\n");
-            if (bwRelationships.isEmpty()) {
-                output.append("No BW relationships found.\n");
-            } else {
-                for (String relationship : bwRelationships) {
-                    output.append(relationship).append("\n");
-                }
+            if (!isPotentiallyLL1(grammarRules)) {
+                return GrammarAnalysisResult.notLL1(conflicts, conflictDetails, conflictDetails.size() + omittedConflicts);
             }
-        }
-                
-        
-        
-        public void displayFBResultsPart2(StringBuilder output) {
-            // Filter EO and BW relationships based on FDB relationships
-            List<String> filteredEO = new ArrayList<>();
-            List<String> filteredBW = new ArrayList<>();
-        
-            for (String eo : eoRelationships) {
-                String[] eoParts = eo.split(" ");
-                if (eoParts.length == 3) {
-                    String nonterminal = eoParts[2];
-                    for (String fdb : fdbRelationships) {
-                        String[] fdbParts = fdb.split(" ");
-                        if (fdbParts.length == 3 && fdbParts[0].equals(nonterminal)) {
-                            filteredEO.add(eo);
-                            break;
-                        }
+            EnumSet<AnalysisStep> required = AnalysisStep.withDependencies(steps);
+            Map<String, Long> timings = new LinkedHashMap<>();
+            ResultParts parts = new ResultParts();
+            long stepStarted = System.nanoTime();
+        
+            for (AnalysisStep step : required) {
+                deadline.check();
+                switch (step) {
+                    case NULLABLE -> findNullableRules();                // Step 1
+                    case BDW -> findBDWRelationships();                  // Step 2
+                    case BW -> findBWRelationships();                    // Step 3
+                    case FIRST -> computeFirstSets();                    // Steps 4 and 5
+                    case FDB -> computeFDBRelationships();               // Step 6
+                    case DEO -> computeDEORelationships();               // Step 7
+                    case EO -> computeEORelationships();                 // Step 8
+                    case FB -> {                                         // Steps 9 and 10
+                        computeFBRelationships();
+                        computeFBRelationshipsWithEndMark();
                     }
-                }
-            }
-        
-            for (String bw : bwRelationships) {
-                String[] bwParts = bw.split(" ");
-                if (bwParts.length == 3) {
-                    String nonterminal = bwParts[0];
-                    for (String fdb : fdbRelationships) {
-                        String[] fdbParts = fdb.split(" ");
-                        if (fdbParts.length == 3 && fdbParts[2].equals(nonterminal)) {
-                            filteredBW.add(bw);
-                            break;
-                        }
+                    case FOLLOW -> computeFollowSetForNullable();        // Step 11
+                    case SELECT -> {                                     // Step 12
+                        List<ProductionSet> select = computeSelectSet();
+                        parts.select = steps.contains(step) ? select : null;
                     }
+                    case TABLE -> parts.table = computeParseTable();     // Step 13
+                }
+                if (steps.contains(step)) {
+                    collect(step, parts);
+                }
+                stepStarted = recordTiming(timings, step.key(), stepStarted);
+                if (listener != null && steps.contains(step)) {
+                    listener.stepCompleted(step, parts.toResult(conflicts, conflictDetails, timings));
                 }
             }
+            timings.put("total", (System.nanoTime() - started) / 1000);
         
-            // Fixed column widths
-            int columnWidth = 15;
-        
-            // Print header
-            output.append(String.format("%-" + columnWidth + "s%-" + columnWidth + "s%-" + columnWidth + "s\n", "From EO", "From FDB", "From BW"));
-            output.append("-".repeat(columnWidth * 3)).append("\n");
-        
-            // Determine the maximum number of rows
-            int maxSize = Math.max(filteredEO.size(), Math.max(fdbRelationships.size(), filteredBW.size()));
-        
-            // Display filtered relationships
-            for (int i = 0; i < maxSize; i++) {
-                String eo = i < filteredEO.size() ? filteredEO.get(i) : "";
-                String fdb = i < fdbRelationships.size() ? fdbRelationships.get(i) : "";
-                String bw = i < filteredBW.size() ? filteredBW.get(i) : "";
-        
-                output.append(String.format("%-" + columnWidth + "s%-" + columnWidth + "s%-" + columnWidth + "s\n", eo, fdb, bw));
+            if (required.equals(AnalysisStep.ALL)) {
+                completeAnalysis();
             }
+            return parts.toResult(conflicts, conflictDetails, timings);
         }
         
-        
-                
-        
-        public String runParser(List<String> grammarInput) {
-            StringBuilder output = new StringBuilder();  // Collect all results in a StringBuilder
-        
-            // Step 1: Process each grammar rule
-            for (String rule : grammarInput) {
-                boolean success = inputGrammarFromString(rule);
-                if (!success) {
-                    return "There was an error processing the grammar.";
+        // Converts the step's relations and sets to names for the result
+        private void collect(AnalysisStep step, ResultParts parts) {
+            switch (step) {
+                case NULLABLE -> parts.nullableRules = nullableRules();
+                case BDW -> parts.bdw = pairs(bdwRelationships);
+                case BW -> parts.bw = new Closure(pairs(bdwRelationships),
+                        pairs(transitiveRelationships), pairs(reflexiveRelationships));
+                case FIRST -> {
+                    parts.first = firstSetsByName();
+                    parts.firstOfRightSide = computeFirstOfRightSide();
                 }
+                case FDB -> parts.fdb = pairs(fdbRelationships);
+                case DEO -> parts.deo = pairs(deoRelationships);
+                case EO -> parts.eo = new Closure(pairs(deoRelationships),
+                        pairs(transitiveEORelationships), pairs(reflexiveEORelationships));
+                case FB -> parts.fb = pairs(fbRelationships);
+                case FOLLOW -> parts.follow = followSetsByName();
+                case SELECT, TABLE -> { } // Collected while computing
             }
+        }
         
-            // Step 1: Find and display Nullable Rules and Nonterminals
-            findNullableRules();
-            output.append("\nStep 1: Nullable Rules and Nonterminals\n");
-            displayNullableResults(output);
-        
-            // Step 2: BDW Relationships
-            findBDWRelationships();
-            output.append("\nStep 2: BDW Relationships\n");
-            displayBDWResults(output);
-        
-            // Step 3: BW Relationships
-            findBWRelationships();
-            output.append("\nStep 3: BW Relationships\n");
-            displayBWResults(output);
-        
-            // Step 4: First sets
-            computeFirstSets();
-            output.append("\nStep 4: First Sets\n");
-            displayFirstSets(output);
-        
-            // Step 5: First of Right Side
-            computeFirstOfRightSide(output);
-        
-            // Step 6: FDB Relationships
-            computeFDBRelationships();
-            output.append("\nStep 6: Followed Directly By (FDB) Relationships\n");
-            displayFDBResults(output);
-        
-            // Step 7: DEO Relationships
-            computeDEORelationships();
-            output.append("\nStep 7: Direct End Of (DEO) Relationships\n");
-            displayDEORelationships(output);
-        
-            // Step 8: EO Relationships
-            computeEORelationships();
-            output.append("\nStep 8: EO Relationships");
-            output.append(displayEORelationships()); // Append the EO relationships
-        
-            // Step 9: Display Relationships
-            output.append("\nStep 9: First Part - Display Relationships\n");
-            displayFBResults(output);
-        
-            // Step 9: Second Part - Display Filtered Relationships
-            output.append("\nStep 9: Second Part - Display Filtered Relationships\n");
-            displayFBResultsPart2(output);
-        
-            // Step 9: Final FB Relationships
-            output.append("\nStep 9: Final FB Relationships\n");
-            List<String> fbRelationships = computeFBRelationships();  // Compute the final FB relationships
-            for (String fb : fbRelationships) {
-                output.append(fb).append("\n");
+        // The steps collected so far; steps not asked for stay null
+        private static final class ResultParts {
+            List<NullableRule> nullableRules;
+            List<Pair> bdw;
+            Closure bw;
+            Map<String, List<String>> first;
+            List<ProductionSet> firstOfRightSide;
+            List<Pair> fdb;
+            List<Pair> deo;
+            Closure eo;
+            List<Pair> fb;
+            Map<String, List<String>> follow;
+            List<ProductionSet> select;
+            ParseTable table;
+        
+            GrammarAnalysisResult toResult(List<String> conflicts, List<Conflict> conflictDetails,
+                                           Map<String, Long> timings) {
+                return new GrammarAnalysisResult(GrammarAnalysisResult.SUCCESS, null, List.copyOf(conflicts),
+                        List.copyOf(conflictDetails), null, nullableRules, bdw, bw, first, firstOfRightSide, fdb, deo, eo,
+                        fb, follow, select, table, new LinkedHashMap<>(timings));
             }
-
-            // Step 10: Compute and display the final FB relationships (including FB ←)
-            computeFBRelationshipsWithEndMark(output);
-
-            // Step 11: Compute and display the Follow sets for nullable nonterminals
-            computeFollowSetForNullable(output);
-
-            //step 12:  
-            computeSelectSet(output);
-        
-            return output.toString();  // Return the accumulated results
         }
         
-        
-        
-    
-}
\ No newline at end of file
+        // Records the time since stepStarted and returns the start of the next step
+        private static long recordTiming(Map<String, Long> timings, String step, long stepStarted) {
+            long now = System.nanoTime();
+            timings.put(step, (now - stepStarted) / 1000);
+            return now;
+        }
+}
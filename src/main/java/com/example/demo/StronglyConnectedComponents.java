@@ -0,0 +1,74 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tarjan's strongly connected components of a directed graph given as adjacency arrays, in
+ * O(V + E). The depth-first search keeps its own stack of frames instead of recursing, so long
+ * chains such as {@code A1 -> A2 ... -> A10000} do not overflow the thread stack. Components
+ * come out in reverse topological order: no component has an edge into a later one.
+ */
+final class StronglyConnectedComponents {
+
+    private StronglyConnectedComponents() {
+    }
+
+    static List<int[]> of(int[][] successors) {
+        int vertices = successors.length;
+        int[] index = new int[vertices];    // Discovery order from 1, 0 while unvisited
+        int[] lowLink = new int[vertices];
+        boolean[] onStack = new boolean[vertices];
+        int[] stack = new int[vertices];    // Vertices of the components still open
+        int stackSize = 0;
+        int[] frames = new int[vertices];   // The depth-first path
+        int[] nextEdge = new int[vertices]; // Per vertex on the path, the successor to look at next
+        int counter = 0;
+        List<int[]> components = new ArrayList<>();
+
+        for (int root = 0; root < vertices; root++) {
+            if (index[root] != 0) {
+                continue;
+            }
+            int depth = 0;
+            frames[depth++] = root;
+            index[root] = lowLink[root] = ++counter;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int vertex = frames[depth - 1];
+                if (nextEdge[vertex] < successors[vertex].length) {
+                    int successor = successors[vertex][nextEdge[vertex]++];
+                    if (index[successor] == 0) {
+                        frames[depth++] = successor;
+                        index[successor] = lowLink[successor] = ++counter;
+                        stack[stackSize++] = successor;
+                        onStack[successor] = true;
+                    } else if (onStack[successor]) {
+                        lowLink[vertex] = Math.min(lowLink[vertex], index[successor]);
+                    }
+                    continue;
+                }
+
+                depth--; // Every successor done
+                if (depth > 0) {
+                    int parent = frames[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[vertex]);
+                }
+                if (lowLink[vertex] == index[vertex]) { // Root of a component: pop it off
+                    int start = stackSize;
+                    do {
+                        onStack[stack[--start]] = false;
+                    } while (stack[start] != vertex);
+                    int[] component = Arrays.copyOfRange(stack, start, stackSize);
+                    Arrays.sort(component);
+                    components.add(component);
+                    stackSize = start;
+                }
+            }
+        }
+        return components;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo;
+
+import java.util.Locale;
+
+/**
+ * How the text of a production is split into symbols. {@link #CHARACTERS}, the default, reads
+ * every character as one symbol, with uppercase letters as nonterminals ({@code S -> aB}).
+ * {@link #TOKENS} reads whitespace-separated names ({@code Factor -> ( Expr ) | id | NUM}); there a
+ * symbol is a nonterminal exactly when it has a rule of its own.
+ */
+public enum SymbolMode {
+    CHARACTERS,
+    TOKENS;
+
+    // Name used in the symbols request parameter, e.g. "tokens"
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // Null or blank means CHARACTERS
+    public static SymbolMode parse(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return CHARACTERS;
+        }
+        try {
+            return valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown symbol mode: " + mode.trim(), e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns grammar symbols to dense int ids so the analysis stages can work on
+ * {@code int[]} productions and bit matrices instead of strings. Ids are handed out
+ * in first-seen order and can outlive the rules that introduced them, so results are not
+ * displayed by id but by {@link CompiledGrammar#rank}: the defined nonterminals in rule
+ * order, then the other symbols in the order the productions first use them.
+ */
+final class SymbolTable {
+
+    static final String EPSILON = "ϵ";
+    static final String END_MARK = "←";
+
+    static final byte NONTERMINAL = 0;
+    static final byte TERMINAL = 1;
+    static final byte END = 2;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private byte[] kinds = new byte[16];
+
+    // Returns the id of the symbol, registering it with the given kind on first sight
+    int intern(String name, byte kind) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = names.size();
+        if (newId == kinds.length) {
+            kinds = Arrays.copyOf(kinds, newId * 2);
+        }
+        ids.put(name, newId);
+        names.add(name);
+        kinds[newId] = kind;
+        return newId;
+    }
+
+    // Returns the id of a known symbol, or -1 if it was never interned
+    int id(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    String name(int id) {
+        return names.get(id);
+    }
+
+    byte kind(int id) {
+        return kinds[id];
+    }
+
+    boolean isNonTerminal(int id) {
+        return kinds[id] == NONTERMINAL;
+    }
+
+    boolean isTerminal(int id) {
+        return kinds[id] == TERMINAL;
+    }
+
+    int size() {
+        return names.size();
+    }
+}
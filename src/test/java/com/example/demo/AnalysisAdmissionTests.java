@@ -0,0 +1,74 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisAdmissionTests {
+
+	@Test
+	void rejectsAnalysesBeyondTheLimit() throws InterruptedException {
+		AnalysisAdmission admission = new AnalysisAdmission(1, Duration.ofMillis(10), Duration.ofSeconds(3));
+		CountDownLatch release = holdAllPermits(admission);
+
+		assertThatThrownBy(() -> admission.admit(() -> "late"))
+				.isInstanceOf(AnalysisRejectedException.class)
+				.extracting(e -> ((AnalysisRejectedException) e).getRetryAfter())
+				.isEqualTo(Duration.ofSeconds(3));
+		assertThat(admission.rejected()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(admission.admitWaiting(() -> "admitted")).isEqualTo("admitted");
+	}
+
+	@Test
+	void sessionAnalysesNeedAPermitToo() throws InterruptedException {
+		AnalysisAdmission admission = new AnalysisAdmission(1, Duration.ofMillis(10), Duration.ofSeconds(3));
+		GrammarSessionStore store = new GrammarSessionStore(1, Duration.ofMinutes(1), AnalysisBudget.UNLIMITED,
+				admission);
+		GrammarSession session = store.create();
+		assertThat(session.load(List.of("S -> aB", "B -> b")).isSuccess()).isTrue();
+		store.add(session);
+
+		CountDownLatch release = holdAllPermits(admission);
+		GrammarSession rejected = store.create();
+		assertThatThrownBy(() -> rejected.load(List.of("S -> a"))).isInstanceOf(AnalysisRejectedException.class);
+		assertThat(store.get(rejected.getId())).isNull();
+		assertThat(store.get(session.getId())).isSameAs(session); // Not evicted to make room for the rejected one
+		assertThatThrownBy(() -> session.replaceRule("B -> c")).isInstanceOf(AnalysisRejectedException.class);
+		assertThatThrownBy(() -> session.removeRule("B")).isInstanceOf(AnalysisRejectedException.class);
+		assertThatThrownBy(session::analysis).isInstanceOf(AnalysisRejectedException.class);
+		assertThat(admission.rejected()).isEqualTo(4);
+
+		release.countDown();
+		assertThat(session.analysis().first()).containsEntry("B", List.of("b")); // The rejected edits were not applied
+	}
+
+	// Occupies every permit until the returned latch is counted down
+	private static CountDownLatch holdAllPermits(AnalysisAdmission admission) throws InterruptedException {
+		int limit = admission.maxConcurrent();
+		CountDownLatch running = new CountDownLatch(limit);
+		CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < limit; i++) {
+			Thread holder = new Thread(() -> admission.admit(() -> {
+				running.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}));
+			holder.setDaemon(true);
+			holder.start();
+		}
+		running.await();
+		return release;
+	}
+
+}
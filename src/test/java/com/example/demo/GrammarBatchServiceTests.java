@@ -0,0 +1,56 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarBatchServiceTests {
+
+	@Test
+	void resultsKeepInputOrderWithPerItemStatus() {
+		GrammarResultCache cache = new GrammarResultCache(100, Long.MAX_VALUE, Duration.ZERO);
+		AnalysisAdmission admission = new AnalysisAdmission(1, Duration.ZERO, Duration.ofSeconds(1));
+		GrammarAnalysisService analysisService = new GrammarAnalysisService(cache, admission, AnalysisBudget.UNLIMITED,
+				new GrammarMetrics(new SimpleMeterRegistry(), cache, admission));
+		GrammarBatchService batchService = new GrammarBatchService(analysisService, 4, 100);
+
+		List<Map<String, Object>> results = batchService.analyze(Arrays.asList(
+				List.of("S -> aB", "B -> b"),
+				List.of("S -> Sa | b"),
+				null,
+				List.of("S -> aB", "B -> b")), AnalysisStep.ALL, "json");
+
+		assertThat(results).extracting(item -> item.get("index")).containsExactly(0, 1, 2, 3);
+		assertThat(results).extracting(item -> item.get("status"))
+				.containsExactly("success", "error", "error", "success");
+		assertThat(((GrammarAnalysisResult) results.get(3).get("result")).select())
+				.isEqualTo(((GrammarAnalysisResult) results.get(0).get("result")).select());
+		batchService.shutdown();
+	}
+
+	@Test
+	void conflictsComeWithTheRulesTheyPointInto() {
+		GrammarResultCache cache = new GrammarResultCache(100, Long.MAX_VALUE, Duration.ZERO);
+		AnalysisAdmission admission = new AnalysisAdmission(1, Duration.ZERO, Duration.ofSeconds(1));
+		GrammarAnalysisService analysisService = new GrammarAnalysisService(cache, admission, AnalysisBudget.UNLIMITED,
+				new GrammarMetrics(new SimpleMeterRegistry(), cache, admission));
+		GrammarBatchService batchService = new GrammarBatchService(analysisService, 4, 100);
+
+		List<Map<String, Object>> results = batchService.analyze(List.of(
+				List.of("S -> aB", "B -> b"),
+				List.of("", "S -> b", "S -> Sa")), AnalysisStep.ALL, "json");
+
+		assertThat(results.get(0)).doesNotContainKey("normalizedGrammar");
+		assertThat(results.get(1).get("normalizedGrammar")).isEqualTo(List.of("S -> b | Sa"));
+		assertThat(((GrammarAnalysisResult) results.get(1).get("result")).conflictDetails())
+				.extracting(GrammarAnalysisResult.Conflict::line).containsOnly(1);
+		batchService.shutdown();
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The checked-in grammars under {@code src/test/resources/grammars}, one rule per line. Each file
+ * is the output of {@link GrammarGenerator} for the shape and seed below, so it can be regenerated
+ * and {@code GrammarCorpusTests} notices when the generator drifts from it.
+ */
+enum GrammarCorpus {
+	SMALL(GrammarGenerator.shape(8, 2, 0.3).withNullableChain(3).withFanOut(4), 1),
+	MEDIUM(GrammarGenerator.shape(60, 3, 0.25).withNullableChain(10).withFanOut(30), 2),
+	HUGE(GrammarGenerator.shape(500, 3, 0.2).withNullableChain(50).withFanOut(200), 3);
+
+	private final GrammarGenerator.Shape shape;
+	private final long seed;
+
+	GrammarCorpus(GrammarGenerator.Shape shape, long seed) {
+		this.shape = shape;
+		this.seed = seed;
+	}
+
+	String resource() {
+		return "/grammars/" + name().toLowerCase() + ".txt";
+	}
+
+	List<String> rules() {
+		try (InputStream in = GrammarCorpus.class.getResourceAsStream(resource())) {
+			if (in == null) {
+				throw new IllegalStateException("Missing corpus grammar " + resource());
+			}
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().filter(line -> !line.isBlank()).toList();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	List<String> generate() {
+		return GrammarGenerator.generate(shape, seed);
+	}
+}
@@ -0,0 +1,49 @@
+package com.example.demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the full analysis of the checked-in {@link GrammarCorpus} grammars, typed and as the
+ * text report, so results stay comparable across changes to the generator's defaults.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrammarCorpusBenchmark {
+
+	@Param({"SMALL", "MEDIUM", "HUGE"})
+	public String corpus; // A GrammarCorpus name; the enum is package-private, which JMH cannot inject
+
+	private List<String> rules;
+
+	@Setup
+	public void setUp() {
+		rules = GrammarCorpus.valueOf(corpus).rules();
+	}
+
+	@Benchmark
+	public GrammarAnalysisResult analyze() {
+		return new RecursiveDescentParser().analyze(rules);
+	}
+
+	@Benchmark
+	public String runParser() {
+		return new RecursiveDescentParser().runParser(rules);
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarCorpusTests {
+
+	@Test
+	void corpusFilesMatchTheGenerator() {
+		for (GrammarCorpus corpus : GrammarCorpus.values()) {
+			assertThat(corpus.rules()).as(corpus.resource()).isEqualTo(corpus.generate());
+		}
+	}
+
+	@Test
+	void corpusGrammarsAreAnalyzed() {
+		for (GrammarCorpus corpus : GrammarCorpus.values()) {
+			GrammarAnalysisResult result = new RecursiveDescentParser().analyze(corpus.rules());
+
+			assertThat(result.isSuccess()).as(corpus.resource()).isTrue();
+			assertThat(result.follow()).isNotEmpty();
+		}
+	}
+
+	@Test
+	void generatorControlsLL1Shape() {
+		GrammarGenerator.Shape shape = GrammarGenerator.shape(20, 2, 0.2);
+		List<String> rules = GrammarGenerator.generate(shape, 5);
+
+		assertThat(GrammarGenerator.generate(shape, 5)).isEqualTo(rules);
+		assertThat(new RecursiveDescentParser().analyze(rules).isSuccess()).isTrue();
+		assertThat(GrammarGenerator.generate(shape.withLeftRecursion(1), 5).get(0)).startsWith("S -> S");
+		assertThat(new RecursiveDescentParser().analyze(GrammarGenerator.generate(shape.withLeftRecursion(3), 5))
+				.isSuccess()).isFalse();
+		assertThat(new RecursiveDescentParser().analyze(GrammarGenerator.generate(shape.withConflictDensity(1), 5))
+				.isSuccess()).isFalse();
+	}
+
+	@Test
+	void nullableChainMakesEveryMemberNullable() {
+		RecursiveDescentParser parser = new RecursiveDescentParser();
+		List<String> rules = GrammarGenerator.generate(GrammarGenerator.shape(30, 2, 0).withNullableChain(10), 9);
+
+		GrammarAnalysisResult result = parser.analyze(rules);
+
+		assertThat(result.nullableRules()).hasSize(10);
+	}
+
+}
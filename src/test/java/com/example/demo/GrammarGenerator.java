@@ -0,0 +1,146 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds synthetic grammars of a given size and shape for benchmarks and scaling tests, as rule
+ * lists in the {@code A -> aB | ϵ} format {@code inputGrammarFromString} accepts. Symbols are
+ * single characters, so nonterminals are drawn from the uppercase letters of the BMP and terminals
+ * from the lowercase ones. The same shape and seed always give the same rules.
+ */
+final class GrammarGenerator {
+
+	private static final char[] NONTERMINALS = letters(true);
+	private static final char[] TERMINALS = letters(false);
+
+	/**
+	 * What to generate. {@code nullableChain} makes the last nonterminals nullable only through
+	 * each other, {@code leftRecursion} closes a left-recursive cycle through the first nonterminals
+	 * (1 is direct), {@code fanOut} is the number of different terminals written after the last
+	 * nonterminal (its FB fan-out), and {@code conflictDensity} is the share of nonterminals given
+	 * a First/First conflict. With the last three at zero the grammar passes the LL(1) check.
+	 */
+	record Shape(int nonterminals, int alternatives, double nullableDensity, int nullableChain,
+				 int leftRecursion, int fanOut, double conflictDensity) {
+
+		Shape withNullableChain(int nullableChain) {
+			return new Shape(nonterminals, alternatives, nullableDensity, nullableChain, leftRecursion, fanOut,
+					conflictDensity);
+		}
+
+		Shape withLeftRecursion(int leftRecursion) {
+			return new Shape(nonterminals, alternatives, nullableDensity, nullableChain, leftRecursion, fanOut,
+					conflictDensity);
+		}
+
+		Shape withFanOut(int fanOut) {
+			return new Shape(nonterminals, alternatives, nullableDensity, nullableChain, leftRecursion, fanOut,
+					conflictDensity);
+		}
+
+		Shape withConflictDensity(double conflictDensity) {
+			return new Shape(nonterminals, alternatives, nullableDensity, nullableChain, leftRecursion, fanOut,
+					conflictDensity);
+		}
+	}
+
+	private GrammarGenerator() {
+	}
+
+	static Shape shape(int nonterminals, int alternatives, double nullableDensity) {
+		return new Shape(nonterminals, alternatives, nullableDensity, 0, 0, 0, 0);
+	}
+
+	static List<String> generate(int nonterminals, int alternatives, double nullableDensity, long seed) {
+		return generate(shape(nonterminals, alternatives, nullableDensity), seed);
+	}
+
+	// Every alternative starts with a terminal of its own, optionally behind the next nonterminal
+	// (which gives BW and First chains), so no two alternatives share a First symbol. Bodies refer
+	// only to later nonterminals, and a nonterminal gets an extra ϵ alternative with the nullable density.
+	static List<String> generate(Shape shape, long seed) {
+		int n = shape.nonterminals();
+		int alternatives = shape.alternatives();
+		if (n < 1 || n > NONTERMINALS.length) {
+			throw new IllegalArgumentException("Nonterminal count must be between 1 and " + NONTERMINALS.length);
+		}
+		if (alternatives < 1 || (long) n * alternatives > TERMINALS.length) {
+			throw new IllegalArgumentException("At most " + TERMINALS.length + " alternatives in total");
+		}
+		if (shape.nullableChain() < 0 || shape.nullableChain() > n || shape.leftRecursion() < 0
+				|| shape.leftRecursion() > n || shape.fanOut() < 0 || shape.fanOut() > n * alternatives) {
+			throw new IllegalArgumentException("Shape does not fit " + n + " nonterminals: " + shape);
+		}
+		int chainStart = n - shape.nullableChain();
+		Random random = new Random(seed);
+
+		List<List<StringBuilder>> grammar = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			List<StringBuilder> productions = new ArrayList<>(alternatives + 1);
+			for (int j = 0; j < alternatives; j++) {
+				StringBuilder production = new StringBuilder();
+				// Chain members already reach the next nonterminal through their last alternative
+				if (j == 0 && i + 1 < n && i < chainStart && random.nextBoolean()) {
+					production.append(NONTERMINALS[i + 1]);
+				}
+				production.append(TERMINALS[i * alternatives + j]);
+				int length = random.nextInt(4);
+				for (int k = 0; k < length; k++) {
+					if (i + 1 < n && random.nextBoolean()) {
+						production.append(NONTERMINALS[i + 1 + random.nextInt(n - i - 1)]);
+					} else {
+						production.append(TERMINALS[random.nextInt(n * alternatives)]);
+					}
+				}
+				productions.add(production);
+			}
+			if (alternatives > 1 && random.nextDouble() < shape.conflictDensity()) {
+				productions.get(alternatives - 1).setCharAt(0, TERMINALS[i * alternatives]);
+			}
+			if (i >= chainStart) {
+				productions.add(new StringBuilder(i + 1 < n ? String.valueOf(NONTERMINALS[i + 1]) : SymbolTable.EPSILON));
+			} else if (random.nextDouble() < shape.nullableDensity()) {
+				productions.add(new StringBuilder(SymbolTable.EPSILON));
+			}
+			grammar.add(productions);
+		}
+
+		// S -> A.. , A -> B.. , ... , last -> S.. ; a depth of 1 gives S -> S..
+		for (int i = 0; i < shape.leftRecursion(); i++) {
+			StringBuilder first = grammar.get(i).get(0);
+			char next = NONTERMINALS[i + 1 < shape.leftRecursion() ? i + 1 : 0];
+			if (first.length() > 0 && first.charAt(0) == NONTERMINALS[i + 1 < n ? i + 1 : 0]) {
+				first.setCharAt(0, next);
+			} else {
+				first.insert(0, next);
+			}
+		}
+
+		// The last nonterminal followed by a different terminal in each of the first rules
+		char last = NONTERMINALS[n - 1];
+		for (int k = 0; k < shape.fanOut(); k++) {
+			List<StringBuilder> productions = grammar.get(k % n);
+			productions.get(k / n % alternatives).append(last).append(TERMINALS[k]);
+		}
+
+		List<String> rules = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			rules.add(NONTERMINALS[i] + " -> " + String.join(" | ", grammar.get(i)));
+		}
+		return rules;
+	}
+
+	// Uppercase letters start with S, so the first rule defines the start symbol
+	private static char[] letters(boolean upperCase) {
+		StringBuilder letters = new StringBuilder(upperCase ? "S" : "");
+		for (char c = 'A'; c < Character.MIN_SURROGATE; c++) {
+			if (Character.isLetter(c) && (upperCase ? Character.isUpperCase(c) : Character.isLowerCase(c))
+					&& c != 'S' && c != SymbolTable.EPSILON.charAt(0)) {
+				letters.append(c);
+			}
+		}
+		return letters.toString().toCharArray();
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GrammarLexerTests {
+
+	@Test
+	void readsRulesWithPositionsAndSkipsInvisibleContent() {
+		List<GrammarLexer.Rule> rules = GrammarLexer.readRules("S -> a{x\ny}B |\n\n  B -> b c | ϵ", SymbolMode.CHARACTERS);
+
+		assertThat(rules).extracting(GrammarLexer.Rule::nonterminal).containsExactly("S", "B");
+		assertThat(rules.get(0).productions()).containsExactly("aB", "ϵ");
+		assertThat(rules.get(1).productions()).containsExactly("b c", "ϵ");
+		assertThat(rules.get(1).line()).isEqualTo(4);
+		assertThat(rules.get(1).column()).isEqualTo(3);
+	}
+
+	@Test
+	void readsMultiCharacterSymbols() {
+		GrammarLexer lexer = new GrammarLexer("Expr' -> + Term Expr'|ϵ", 1, SymbolMode.TOKENS);
+
+		assertThat(List.of(lexer.next(), lexer.next(), lexer.next(), lexer.next(), lexer.next(), lexer.next()))
+				.extracting(GrammarLexer.Token::text)
+				.containsExactly("Expr'", "->", "+", "Term", "Expr'", "|");
+		assertThat(lexer.next().kind()).isEqualTo(GrammarLexer.Kind.EPSILON);
+	}
+
+	@Test
+	void reportsWhereARuleIsMalformed() {
+		assertThatThrownBy(() -> GrammarLexer.readRules("S -> a\nB = b", SymbolMode.CHARACTERS))
+				.isInstanceOf(GrammarSyntaxException.class)
+				.hasMessage("Line 2, column 3: Expected '->' after B");
+		assertThatThrownBy(() -> GrammarLexer.readRules("S -> a -> b", SymbolMode.CHARACTERS))
+				.hasMessageStartingWith("Line 1, column 8:");
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarMetricsTests {
+
+	@Test
+	void analysesAreTimedPerStepAndCacheHitsCounted() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		GrammarResultCache cache = new GrammarResultCache(100, Long.MAX_VALUE, Duration.ZERO);
+		AnalysisAdmission admission = new AnalysisAdmission(1, Duration.ZERO, Duration.ofSeconds(1));
+		GrammarAnalysisService service = new GrammarAnalysisService(cache, admission, AnalysisBudget.UNLIMITED,
+				new GrammarMetrics(registry, cache, admission));
+
+		service.analyze(List.of("S -> aB", "B -> b | ϵ"));
+		service.analyze(List.of("S -> aB", "B -> b | ϵ"));
+		service.analyze(List.of("S -> Sa | b"));
+
+		assertThat(registry.get("grammar.analysis").tags("kind", "stateless", "outcome", "success").timer().count())
+				.isEqualTo(1);
+		assertThat(registry.get("grammar.analysis").tags("outcome", "error").timer().count()).isEqualTo(1);
+		for (AnalysisStep step : AnalysisStep.ALL) {
+			assertThat(registry.get("grammar.analysis.step").tag("step", step.key()).timer().count()).isEqualTo(1);
+		}
+		assertThat(registry.get("grammar.relation.pairs").tag("relation", "fb").summary().totalAmount()).isPositive();
+		assertThat(registry.get("grammar.cache.requests").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+		assertThat(registry.get("grammar.cache.hit.ratio").gauge().value()).isEqualTo(1.0 / 3);
+	}
+
+	@Test
+	void sessionRulesAreCountedAsRead() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		GrammarResultCache cache = new GrammarResultCache(100, Long.MAX_VALUE, Duration.ZERO);
+		AnalysisAdmission admission = new AnalysisAdmission(1, Duration.ZERO, Duration.ofSeconds(1));
+		GrammarMetrics metrics = new GrammarMetrics(registry, cache, admission);
+		GrammarSession session = new GrammarSessionStore(1, Duration.ofMinutes(1), AnalysisBudget.UNLIMITED, admission)
+				.create();
+
+		metrics.record(GrammarMetrics.SESSION, session::ruleCount, () -> session.load(List.of("S -> aB\nB -> b", "B -> c")));
+
+		assertThat(registry.get("grammar.rules").summary().totalAmount()).isEqualTo(2);
+	}
+
+}
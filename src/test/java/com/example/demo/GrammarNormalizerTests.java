@@ -0,0 +1,67 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarNormalizerTests {
+
+	@Test
+	void equivalentGrammarsShareCanonicalForm() {
+		GrammarNormalizer.NormalizedGrammar first = GrammarNormalizer.normalize(
+				List.of("S -> aB | c", "B -> b | ϵ"));
+		GrammarNormalizer.NormalizedGrammar second = GrammarNormalizer.normalize(
+				List.of("B ->  b {comment}|", "", "  S->aB|c|aB  "));
+
+		assertThat(second.rules()).containsExactly("S -> aB | c", "B -> b | ϵ");
+		assertThat(second.fingerprint()).isEqualTo(first.fingerprint());
+	}
+
+	@Test
+	void alternativesAreComparedByTheirSymbols() {
+		GrammarNormalizer.NormalizedGrammar grammar = GrammarNormalizer.normalize(List.of("S -> aB | a B", "B -> b"));
+
+		assertThat(grammar.rules()).containsExactly("S -> aB", "B -> b");
+		assertThat(grammar.fingerprint())
+				.isEqualTo(GrammarNormalizer.normalize(List.of("S -> a B", "B -> b")).fingerprint());
+		assertThat(new RecursiveDescentParser().analyze(grammar.rules()).isSuccess()).isTrue();
+		assertThat(GrammarNormalizer.normalize(List.of("E -> T  ϵ X | T X"), SymbolMode.TOKENS).rules())
+				.containsExactly("E -> T X");
+	}
+
+	@Test
+	void mergesRulesAndOrdersNonterminalsAfterStartSymbol() {
+		assertThat(GrammarNormalizer.normalize(List.of("E -> TX", "X -> +E | ϵ", "T -> a", "E -> b")).rules())
+				.containsExactly("E -> TX | b", "T -> a", "X -> +E | ϵ");
+	}
+
+	@Test
+	void keepsMalformedRulesAsWritten() {
+		assertThat(GrammarNormalizer.normalize(List.of("S -> a", "  B = b ")).rules())
+				.containsExactly("S -> a", "  B = b ");
+
+		// A left side only the lexer rejects is not sorted away from where the client wrote it
+		List<String> rules = List.of("S -> aB", "C -> c", "D -> d", "AB -> x");
+		GrammarNormalizer.NormalizedGrammar normalized = GrammarNormalizer.normalize(rules);
+		assertThat(normalized.rules()).isEqualTo(rules);
+		assertThat(new RecursiveDescentParser().analyze(normalized.rules()).syntaxError().line()).isEqualTo(4);
+	}
+
+	@Test
+	void symbolModeIsPartOfTheFingerprint() {
+		List<String> rules = List.of("S -> id");
+
+		assertThat(GrammarNormalizer.normalize(rules, SymbolMode.TOKENS).fingerprint())
+				.isNotEqualTo(GrammarNormalizer.normalize(rules).fingerprint());
+	}
+
+	@Test
+	void removedBlockSeparatesTokensLikeTheLexer() {
+		assertThat(GrammarNormalizer.normalize(List.of("S -> a{x}b"), SymbolMode.TOKENS).rules())
+				.containsExactly("S -> a b");
+		assertThat(GrammarNormalizer.normalize(List.of("S -> a{x}b")).rules()).containsExactly("S -> ab");
+	}
+
+}
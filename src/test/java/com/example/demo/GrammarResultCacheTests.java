@@ -0,0 +1,54 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarResultCacheTests {
+
+	@Test
+	void evictsLeastRecentlyUsedEntry() {
+		GrammarResultCache cache = new GrammarResultCache(2, Long.MAX_VALUE, Duration.ZERO);
+		cache.put("a", result("1"));
+		cache.put("b", result("2"));
+		cache.get("a");
+		cache.put("c", result("3"));
+
+		assertThat(cache.get("a")).isEqualTo(result("1"));
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("c")).isEqualTo(result("3"));
+		assertThat(cache.evictions()).isEqualTo(1);
+		assertThat(cache.hits()).isEqualTo(3);
+		assertThat(cache.misses()).isEqualTo(1);
+	}
+
+	@Test
+	void staysWithinByteBudget() {
+		GrammarResultCache cache = new GrammarResultCache(100, 1000, Duration.ZERO);
+		for (int i = 0; i < 20; i++) {
+			cache.put("key" + i, result("x".repeat(100)));
+		}
+
+		assertThat(cache.bytes()).isLessThanOrEqualTo(1000);
+		assertThat(cache.get("key19")).isNotNull();
+		assertThat(cache.get("key0")).isNull();
+	}
+
+	@Test
+	void expiresEntriesAfterTimeToLive() throws InterruptedException {
+		GrammarResultCache cache = new GrammarResultCache(10, Long.MAX_VALUE, Duration.ofNanos(1));
+		cache.put("a", result("1"));
+		Thread.sleep(2);
+
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	private static GrammarAnalysisResult result(String message) {
+		return GrammarAnalysisResult.error(message, List.of());
+	}
+
+}
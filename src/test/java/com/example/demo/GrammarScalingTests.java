@@ -0,0 +1,44 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarScalingTests {
+
+	private static final int SMALL = 50;
+	private static final int LARGE = 400;
+
+	// Eight times the rules must cost well under the 64 times a quadratic analysis would;
+	// the best of several runs keeps GC pauses and JIT warm-up out of the comparison
+	@Test
+	void analysisTimeGrowsSubQuadratically() {
+		List<String> small = GrammarGenerator.generate(GrammarGenerator.shape(SMALL, 3, 0.2).withFanOut(SMALL), 11);
+		List<String> large = GrammarGenerator.generate(GrammarGenerator.shape(LARGE, 3, 0.2).withFanOut(LARGE), 11);
+		for (int i = 0; i < 5; i++) {
+			analyze(large);
+			analyze(small);
+		}
+
+		long smallNanos = Long.MAX_VALUE;
+		long largeNanos = Long.MAX_VALUE;
+		for (int i = 0; i < 7; i++) {
+			smallNanos = Math.min(smallNanos, analyze(small));
+			largeNanos = Math.min(largeNanos, analyze(large));
+		}
+
+		double quadratic = (double) (LARGE * LARGE) / (SMALL * SMALL);
+		assertThat((double) largeNanos / smallNanos).isLessThan(quadratic / 2);
+	}
+
+	private static long analyze(List<String> rules) {
+		long started = System.nanoTime();
+		GrammarAnalysisResult result = new RecursiveDescentParser().analyze(rules);
+		long elapsed = System.nanoTime() - started;
+		assertThat(result.isSuccess()).isTrue();
+		return elapsed;
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrammarTransformerTests {
+
+	@Test
+	void directAndIndirectLeftRecursionAreRemoved() {
+		GrammarTransformer.Transformation transformation = GrammarTransformer.transform(
+				List.of("E -> E + T | T", "T -> T * F | F", "F -> ( E ) | id"), SymbolMode.TOKENS);
+
+		assertThat(transformation.rules()).containsExactly("E -> T E'", "E' -> + T E' | ϵ", "T -> F T'",
+				"T' -> * F T' | ϵ", "F -> ( E ) | id");
+		assertThat(new RecursiveDescentParser(AnalysisBudget.UNLIMITED, SymbolMode.TOKENS)
+				.analyze(transformation.rules()).isSuccess()).isTrue();
+
+		transformation = GrammarTransformer.transform(List.of("S -> Aa | b", "A -> Sc | d"), SymbolMode.CHARACTERS);
+		assertThat(transformation.rules()).containsExactly("S -> Aa | b", "A -> bcB | dB", "B -> acB | ϵ");
+		// Not LL(1) yet (S -> Aa | b both start with b), but no longer left-recursive
+		assertThat(new RecursiveDescentParser().analyze(transformation.rules()).conflictDetails())
+				.extracting(GrammarAnalysisResult.Conflict::type)
+				.contains(GrammarAnalysisResult.ConflictType.FIRST_FIRST)
+				.doesNotContain(GrammarAnalysisResult.ConflictType.DIRECT_LEFT_RECURSION,
+						GrammarAnalysisResult.ConflictType.INDIRECT_LEFT_RECURSION);
+	}
+
+	@Test
+	void sharedPrefixesAreFactoredOnce() {
+		GrammarTransformer.Transformation transformation = GrammarTransformer.transform(
+				List.of("S -> iEtS | iEtSeS | a", "E -> b"), SymbolMode.CHARACTERS);
+
+		assertThat(transformation.rules()).containsExactly("S -> iEtSA | a", "A -> ϵ | eS", "E -> b");
+		assertThat(transformation.changes()).containsExactly("Left-factored S on iEtS: A -> ϵ | eS");
+
+		transformation = GrammarTransformer.transform(List.of("S -> abc | abd | ae | f"), SymbolMode.CHARACTERS);
+		assertThat(transformation.rules()).containsExactly("S -> aA | f", "A -> bB | e", "B -> c | d");
+	}
+}
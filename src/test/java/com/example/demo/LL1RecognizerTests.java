@@ -0,0 +1,89 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LL1RecognizerTests {
+
+	private static final List<String> EXPRESSIONS = List.of("E -> TX", "X -> +TX | ϵ", "T -> FY", "Y -> *FY | ϵ",
+			"F -> (E) | i");
+
+	@Test
+	void acceptsSentencesOfTheLanguageAndSaysWhereOthersFail() {
+		LL1Recognizer recognizer = recognizer(EXPRESSIONS, SymbolMode.CHARACTERS);
+
+		assertThat(recognizer.recognize("i+i*(i+i)").accepted()).isTrue();
+		assertThat(recognizer.recognize(" i * i ").accepted()).isTrue();
+		assertThat(recognizer.recognize("i+*i"))
+				.isEqualTo(new LL1Recognizer.Recognition(false, 2, 3, "*", List.of("(", "i")));
+		assertThat(recognizer.recognize("(i"))
+				.isEqualTo(new LL1Recognizer.Recognition(false, 2, 3, "←", List.of(")")));
+		assertThat(recognizer.recognize("ix").found()).isEqualTo("x");
+	}
+
+	@Test
+	void readsSentencesAsTokensInTokenMode() {
+		LL1Recognizer recognizer = recognizer(List.of("Expr -> Term Rest", "Rest -> + Term Rest | ϵ", "Term -> id | num"),
+				SymbolMode.TOKENS);
+
+		assertThat(recognizer.recognize("id + num + id").accepted()).isTrue();
+		assertThat(recognizer.recognize("id + + num"))
+				.isEqualTo(new LL1Recognizer.Recognition(false, 2, 6, "+", List.of("id", "num")));
+	}
+
+	@Test
+	void generatedRecognizerAgreesWithTheTable() {
+		RecursiveDescentParser parser = new RecursiveDescentParser(AnalysisBudget.UNLIMITED, SymbolMode.CHARACTERS);
+		parser.analyze(EXPRESSIONS, EnumSet.of(AnalysisStep.TABLE));
+		LL1Recognizer table = new LL1Recognizer(parser.parseTable(), SymbolMode.CHARACTERS);
+		LL1Recognizer generated = new LL1Recognizer(parser.parseTable(), SymbolMode.CHARACTERS,
+				RecognizerGenerator.generate(parser.parseTable()).get());
+
+		Random random = new Random(7);
+		String alphabet = "i+*()x";
+		for (int n = 0; n < 2000; n++) {
+			StringBuilder sentence = new StringBuilder();
+			for (int length = random.nextInt(12); length > 0; length--) {
+				sentence.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			assertThat(generated.recognize(sentence.toString())).as(sentence.toString())
+					.isEqualTo(table.recognize(sentence.toString()));
+		}
+		// Deeper than the generated methods can recurse: falls back to the table
+		String deep = "(".repeat(200_000) + "i" + ")".repeat(200_000);
+		assertThat(generated.recognize(deep).accepted()).isTrue();
+		assertThat(generated.recognize("i" + "+i".repeat(200_000)).accepted()).isTrue();
+	}
+
+	@Test
+	void serviceRefusesGrammarsThatAreNotLL1() {
+		GrammarResultCache cache = new GrammarResultCache(100, Long.MAX_VALUE, Duration.ZERO);
+		AnalysisAdmission admission = new AnalysisAdmission(1, Duration.ZERO, Duration.ofSeconds(1));
+		GrammarRecognitionService service = new GrammarRecognitionService(admission, AnalysisBudget.UNLIMITED,
+				new GrammarMetrics(new SimpleMeterRegistry(), cache, admission), 100, 10);
+
+		Map<String, Object> response = service.recognize(GrammarNormalizer.normalize(EXPRESSIONS),
+				List.of("i*i", "i)", ""));
+		assertThat(response).containsEntry("status", "success").containsEntry("accepted", 1).containsEntry("rejected", 2);
+
+		response = service.recognize(GrammarNormalizer.normalize(List.of("S -> Ac", "A -> c | ϵ")), List.of("c"));
+		assertThat(response).containsEntry("status", "error");
+		assertThat(((GrammarAnalysisResult) response.get("result")).conflictDetails())
+				.extracting(GrammarAnalysisResult.Conflict::type)
+				.containsExactly(GrammarAnalysisResult.ConflictType.FIRST_FOLLOW);
+	}
+
+	private static LL1Recognizer recognizer(List<String> rules, SymbolMode mode) {
+		RecursiveDescentParser parser = new RecursiveDescentParser(AnalysisBudget.UNLIMITED, mode);
+		assertThat(parser.analyze(rules, EnumSet.of(AnalysisStep.TABLE)).isSuccess()).isTrue();
+		return new LL1Recognizer(parser.parseTable(), mode);
+	}
+}
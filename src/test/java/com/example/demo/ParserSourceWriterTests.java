@@ -0,0 +1,50 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParserSourceWriterTests {
+
+	@Test
+	void exportedParserCompilesAndAcceptsWhatTheRecognizerAccepts(@TempDir Path directory) throws Exception {
+		RecursiveDescentParser parser = new RecursiveDescentParser(AnalysisBudget.UNLIMITED, SymbolMode.CHARACTERS);
+		parser.analyze(List.of("E -> TX", "X -> +TX | ϵ", "T -> FY", "Y -> *FY | ϵ", "F -> (E) | i | \"\\\""),
+				EnumSet.of(AnalysisStep.TABLE));
+		String source = ParserSourceWriter.write(parser.parseTable(), SymbolMode.CHARACTERS, "acme.parsing", "ExprParser");
+
+		Path file = directory.resolve("acme/parsing/ExprParser.java");
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, source, StandardCharsets.UTF_8);
+		assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, "-encoding", "UTF-8", file.toString()))
+				.as(source).isZero();
+
+		LL1Recognizer recognizer = new LL1Recognizer(parser.parseTable(), SymbolMode.CHARACTERS);
+		try (URLClassLoader loader = new URLClassLoader(new URL[] {directory.toUri().toURL()})) {
+			Method parse = loader.loadClass("acme.parsing.ExprParser").getMethod("parse", String.class);
+			for (String sentence : List.of("i+i*(i+i)", "\"*\\", "i+*i", "(i", "i)", "", "i+i+i+i")) {
+				boolean accepted;
+				try {
+					parse.invoke(null, sentence);
+					accepted = true;
+				} catch (InvocationTargetException e) {
+					assertThat(e.getCause().getClass().getSimpleName()).isEqualTo("ParseException");
+					accepted = false;
+				}
+				assertThat(accepted).as(sentence).isEqualTo(recognizer.recognize(sentence).accepted());
+			}
+		}
+	}
+}
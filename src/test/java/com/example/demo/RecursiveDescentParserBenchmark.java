@@ -0,0 +1,154 @@
+package com.example.demo;
+
+import com.example.demo.GrammarAnalysisResult.ParseTable;
+import com.example.demo.GrammarAnalysisResult.ProductionSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each analysis step on its own and {@code runParser} end to end, over grammars from
+ * {@link GrammarGenerator}. Every step benchmark runs against a parser that has already been
+ * through all steps once, so the step finds its inputs in place and only its own work is timed.
+ * Run with {@code mvn -Pbenchmark verify}, adding e.g. {@code -Djmh.args="BW -p nonterminals=400"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecursiveDescentParserBenchmark {
+
+	@Param({"20", "200"})
+	public int nonterminals;
+
+	@Param({"3"})
+	public int alternatives;
+
+	@Param({"0.0", "0.3"})
+	public double nullableDensity;
+
+	private List<String> rules;
+	private CompiledGrammar grammar;
+	private RecursiveDescentParser parser;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		rules = GrammarGenerator.generate(nonterminals, alternatives, nullableDensity, 42);
+		parser = new RecursiveDescentParser();
+		if (!parser.inputGrammarFromString(String.join("\n", rules))) {
+			throw new IllegalStateException("Generated grammar was rejected: " + rules);
+		}
+		grammar = CompiledGrammar.compile(parser.getGrammarRules());
+
+		// The parser never completes an analysis here, so BDW, FDB and DEO are recomputed on every call
+		parser.findNullableRules();
+		parser.findBDWRelationships();
+		parser.findBWRelationships();
+		parser.computeFirstSets();
+		parser.computeFDBRelationships();
+		parser.computeDEORelationships();
+		parser.computeEORelationships();
+		parser.computeFBRelationships();
+		parser.computeFBRelationshipsWithEndMark();
+		parser.computeFollowSetForNullable();
+		parser.computeSelectSet();
+	}
+
+	// Step 1
+	@Benchmark
+	public FirstFollowSolver nullable() {
+		return new FirstFollowSolver(grammar);
+	}
+
+	// Step 2
+	@Benchmark
+	public void bdw() {
+		parser.findBDWRelationships();
+	}
+
+	// Step 3
+	@Benchmark
+	public void bwClosure() {
+		parser.discardClosures();
+		parser.findBWRelationships();
+	}
+
+	// Step 4, on a fresh solver so it includes the nullable pass First is built on
+	@Benchmark
+	public BitSet[] first() {
+		return new FirstFollowSolver(grammar).firstSets();
+	}
+
+	// Step 5
+	@Benchmark
+	public List<ProductionSet> firstOfRightSide() {
+		return parser.computeFirstOfRightSide();
+	}
+
+	// Step 6
+	@Benchmark
+	public void fdb() {
+		parser.computeFDBRelationships();
+	}
+
+	// Step 7
+	@Benchmark
+	public void deo() {
+		parser.computeDEORelationships();
+	}
+
+	// Step 8
+	@Benchmark
+	public void eoClosure() {
+		parser.discardClosures();
+		parser.computeEORelationships();
+	}
+
+	// Steps 9 and 10
+	@Benchmark
+	public void fb() {
+		parser.discardClosures();
+		parser.computeFBRelationships();
+		parser.computeFBRelationshipsWithEndMark();
+	}
+
+	// Step 11
+	@Benchmark
+	public void follow() {
+		parser.computeFollowSetForNullable();
+		parser.computeSelectSet();
+	}
+
+	// Step 12
+	@Benchmark
+	public List<ProductionSet> select() {
+		return parser.computeSelectSet();
+	}
+
+	// Step 13
+	@Benchmark
+	public ParseTable parseTable() {
+		return parser.computeParseTable();
+	}
+
+	// Every step and the text report, on a fresh parser
+	@Benchmark
+	public String runParser() {
+		return new RecursiveDescentParser().runParser(rules);
+	}
+}
@@ -0,0 +1,274 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecursiveDescentParserTests {
+
+	@Test
+	void incrementalAnalysisMatchesFreshAnalysisAfterEachEdit() {
+		List<String> rules = new ArrayList<>(List.of("S -> ABCd", "A -> aA | ϵ", "B -> bB | C", "C -> cC | ϵ"));
+		RecursiveDescentParser session = new RecursiveDescentParser();
+		assertThat(session.runParser(rules)).isEqualTo(new RecursiveDescentParser().runParser(rules));
+
+		String[][] edits = {
+				{"1", "A -> aA | e"},    // A stops being nullable
+				{"3", "C -> cC | ϵ | f"}, // new terminal
+				{"1", "A -> aA | ϵ"},    // A nullable again
+				{"2", "B -> bB | d"},    // B stops being nullable
+				{"0", "S -> ABCdD"},     // new nonterminal, still undefined
+		};
+		for (String[] edit : edits) {
+			rules.set(Integer.parseInt(edit[0]), edit[1]);
+			session.replaceRule(edit[1]);
+			assertThat(session.runAnalysis())
+					.as("after %s", edit[1])
+					.isEqualTo(new RecursiveDescentParser().runParser(rules));
+		}
+
+		rules.add("D -> x");
+		session.replaceRule("D -> x");
+		assertThat(session.runAnalysis()).isEqualTo(new RecursiveDescentParser().runParser(rules));
+
+		// B's rule is removed while A still uses it, which moves B in the display order
+		List<String> moved = new ArrayList<>(List.of("S -> A | d | cB", "A -> B | d", "B -> ϵ | Db", "C -> DDA", "D -> dB"));
+		RecursiveDescentParser edited = new RecursiveDescentParser();
+		edited.runParser(moved);
+		moved.set(0, "S -> ϵ | A");
+		edited.replaceRule("S -> ϵ | A");
+		edited.runAnalysis();
+		moved.remove(2);
+		edited.removeRule("B");
+		edited.runAnalysis();
+		moved.set(1, "A -> d | BAC");
+		edited.replaceRule("A -> d | BAC");
+		assertThat(edited.runAnalysis()).isEqualTo(new RecursiveDescentParser().runParser(moved));
+	}
+
+	@Test
+	void removedRuleIsNoLongerAnalyzed() {
+		RecursiveDescentParser session = new RecursiveDescentParser();
+		session.runParser(List.of("S -> aB", "B -> b", "C -> c"));
+
+		assertThat(session.removeRule("C")).isTrue();
+		assertThat(session.runAnalysis()).isEqualTo(new RecursiveDescentParser().runParser(List.of("S -> aB", "B -> b")));
+	}
+
+	@Test
+	void malformedInputIsLeftToTheCallerToReport() {
+		assertThatThrownBy(() -> new RecursiveDescentParser().inputGrammarFromString("S -> aB\nB b"))
+				.isInstanceOf(GrammarSyntaxException.class)
+				.extracting("line").isEqualTo(2);
+	}
+
+	@Test
+	void analysisIsTypedPerStep() {
+		GrammarAnalysisResult result = new RecursiveDescentParser().analyze(List.of("S -> aBc | d", "B -> bB | ϵ"));
+
+		assertThat(result.isSuccess()).isTrue();
+		assertThat(result.nullableRules()).containsExactly(new GrammarAnalysisResult.NullableRule("B", "ϵ"));
+		assertThat(result.first()).containsEntry("S", List.of("a", "d"));
+		assertThat(result.follow().get("B")).containsExactly("c");
+		assertThat(result.select()).extracting(GrammarAnalysisResult.ProductionSet::symbols)
+				.startsWith(List.of("a"), List.of("d"), List.of("b"));
+		assertThat(result.select().get(3).epsilon()).isTrue();
+	}
+
+	@Test
+	void conflictsAreReportedWithoutScanningTheText() {
+		GrammarAnalysisResult result = new RecursiveDescentParser().analyze(List.of("S -> Sa | b"));
+
+		assertThat(result.isSuccess()).isFalse();
+		assertThat(result.conflicts()).startsWith("Direct left recursion detected in rule: S -> Sa");
+		assertThat(result.conflictDetails()).extracting(GrammarAnalysisResult.Conflict::type)
+				.containsExactly(GrammarAnalysisResult.ConflictType.DIRECT_LEFT_RECURSION,
+						GrammarAnalysisResult.ConflictType.FIRST_FIRST);
+		assertThat(result.select()).isNull();
+	}
+
+	@Test
+	void tokenModeReadsMultiCharacterSymbols() {
+		GrammarAnalysisResult result = new RecursiveDescentParser(AnalysisBudget.UNLIMITED, SymbolMode.TOKENS).analyze(
+				List.of("E -> T E'", "E' -> + T E' | ϵ", "T -> ( E ) | id | NUM"));
+
+		assertThat(result.isSuccess()).isTrue();
+		assertThat(result.first()).containsEntry("E", List.of("(", "id", "NUM"))
+				.containsEntry("E'", List.of("+"))
+				.containsEntry("NUM", List.of("NUM"));
+		assertThat(result.select().get(0).production()).isEqualTo("T E'");
+		assertThat(result.bdw()).contains(new GrammarAnalysisResult.Pair("T", "id"));
+	}
+
+	@Test
+	void malformedRuleIsReportedWithItsPosition() {
+		GrammarAnalysisResult result = new RecursiveDescentParser().analyze(List.of("S -> aB", "B b"));
+
+		assertThat(result.isSuccess()).isFalse();
+		assertThat(result.conflicts()).containsExactly("Invalid rule: B b");
+		assertThat(result.syntaxError()).isEqualTo(new GrammarAnalysisResult.SyntaxError(2, 3, "Expected '->' after B"));
+	}
+
+	@Test
+	void parseTableHasOneProductionPerCellForAnLL1Grammar() {
+		GrammarAnalysisResult result = new RecursiveDescentParser().analyze(
+				List.of("E -> TX", "X -> +TX | ϵ", "T -> FY", "Y -> *FY | ϵ", "F -> (E) | i"));
+
+		assertThat(result.follow()).containsEntry("X", List.of(")", "←")).containsEntry("Y", List.of("+", ")", "←"));
+		GrammarAnalysisResult.ParseTable table = result.table();
+		assertThat(table.nonterminals()).containsExactly("E", "X", "T", "Y", "F");
+		assertThat(table.terminals()).containsExactly("+", "*", "(", ")", "i", "←");
+		assertThat(table.cells()).isDeepEqualTo(new int[][] {
+				{0, 0, 1, 0, 1, 0},
+				{2, 0, 0, 3, 0, 3},
+				{0, 0, 4, 0, 4, 0},
+				{6, 5, 0, 6, 0, 6},
+				{0, 0, 7, 0, 8, 0}});
+		assertThat(table.conflicts()).isEmpty();
+	}
+
+	@Test
+	void everyConflictIsReportedAtItsRule() {
+		GrammarAnalysisResult result = new RecursiveDescentParser().analyze(
+				List.of("S -> Ac | Cd", "A -> c | ϵ", "C -> Dx | e", "D -> Cy"));
+
+		assertThat(result.isSuccess()).isFalse();
+		assertThat(result.message()).isEqualTo("The grammar is not LL(1): 3 conflict(s) found.");
+		assertThat(result.conflictDetails()).containsExactly(
+				new GrammarAnalysisResult.Conflict(GrammarAnalysisResult.ConflictType.FIRST_FOLLOW, "A", 2, 1,
+						List.of(3, 4), List.of("c")),
+				new GrammarAnalysisResult.Conflict(GrammarAnalysisResult.ConflictType.FIRST_FIRST, "C", 3, 1,
+						List.of(5, 6), List.of("e")),
+				new GrammarAnalysisResult.Conflict(GrammarAnalysisResult.ConflictType.INDIRECT_LEFT_RECURSION, "C", 3, 1,
+						List.of(5, 7), List.of("C", "D", "C")));
+		assertThat(result.conflicts()).last().isEqualTo("Indirect left recursion detected: C -> D -> C");
+	}
+
+	@Test
+	void editedSessionLocatesConflictsByItsCurrentRuleOrder() {
+		RecursiveDescentParser session = new RecursiveDescentParser();
+		session.analyze(List.of("S -> Ac | Cd", "B -> b", "A -> c | ϵ", "C -> Dx | e", "D -> Cy"));
+
+		session.removeRule("B");
+		session.replaceRule("  E -> ee | e");
+		session.replaceRule("A -> c | ϵ | a");
+		List<String> rules = List.of("S -> Ac | Cd", "A -> c | ϵ | a", "C -> Dx | e", "D -> Cy", "  E -> ee | e");
+		GrammarAnalysisResult fresh = new RecursiveDescentParser().analyze(rules);
+
+		assertThat(session.analyze().conflictDetails()).isEqualTo(fresh.conflictDetails())
+				.extracting(GrammarAnalysisResult.Conflict::line).containsExactly(2, 3, 5, 3);
+	}
+
+	@Test
+	void longLeftRecursionCycleIsReportedOnce() {
+		List<String> rules = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			rules.add("A" + i + " -> A" + (i + 1) % 5000 + " x" + (i == 4999 ? " | y" : ""));
+		}
+		GrammarAnalysisResult result = new RecursiveDescentParser(AnalysisBudget.UNLIMITED, SymbolMode.TOKENS).analyze(rules);
+
+		assertThat(result.conflictDetails()).extracting(GrammarAnalysisResult.Conflict::type)
+				.containsExactly(GrammarAnalysisResult.ConflictType.FIRST_FIRST,
+						GrammarAnalysisResult.ConflictType.INDIRECT_LEFT_RECURSION);
+		assertThat(result.conflictDetails().get(1)).satisfies(conflict -> {
+			assertThat(conflict.nonterminal()).isEqualTo("A0");
+			assertThat(conflict.symbols()).hasSize(5001).endsWith("A4999", "A0");
+			assertThat(conflict.productions()).hasSize(5000);
+		});
+	}
+
+	@Test
+	void selectedStepsRunTheirDependenciesButReportOnlyThemselves() {
+		List<String> rules = List.of("S -> ABc", "A -> aA | ϵ", "B -> bB | ϵ");
+		GrammarAnalysisResult full = new RecursiveDescentParser().analyze(rules);
+		GrammarAnalysisResult select = new RecursiveDescentParser().analyze(rules, EnumSet.of(AnalysisStep.SELECT));
+
+		assertThat(select.select()).isEqualTo(full.select());
+		assertThat(select.fb()).isNull();
+		assertThat(select.bdw()).isNull();
+		assertThat(select.timingsMicros()).containsKeys("bw", "fb", "follow", "select");
+	}
+
+	@Test
+	void partialAnalysisDoesNotLeaveStaleClosuresBehind() {
+		RecursiveDescentParser session = new RecursiveDescentParser();
+		session.runParser(List.of("S -> ABc", "A -> aA | ϵ", "B -> bB | ϵ"));
+
+		session.replaceRule("A -> aA | e");
+		session.analyze(EnumSet.of(AnalysisStep.BDW, AnalysisStep.DEO));
+		assertThat(session.runAnalysis())
+				.isEqualTo(new RecursiveDescentParser().runParser(List.of("S -> ABc", "A -> aA | e", "B -> bB | ϵ")));
+	}
+
+	@Test
+	void listenerSeesEachRequestedStepAsItCompletes() {
+		List<AnalysisStep> seen = new ArrayList<>();
+		GrammarAnalysisResult result = new RecursiveDescentParser().analyze(List.of("S -> aB", "B -> b | ϵ"),
+				EnumSet.of(AnalysisStep.FIRST, AnalysisStep.SELECT), (step, partial) -> {
+					seen.add(step);
+					assertThat(partial.stepData(step)).isNotEmpty();
+				});
+
+		assertThat(seen).containsExactly(AnalysisStep.FIRST, AnalysisStep.SELECT);
+		assertThat(result.select()).hasSize(3);
+	}
+
+	@Test
+	void analysisStopsWhenItExceedsItsBudget() {
+		List<String> rules = List.of("S -> aA", "A -> bB | ϵ", "B -> c");
+
+		assertThatThrownBy(() -> new RecursiveDescentParser(new AnalysisBudget(2, 0, 0, Duration.ZERO)).analyze(rules))
+				.isInstanceOf(AnalysisBudgetExceededException.class)
+				.extracting("limit").isEqualTo("rules");
+		assertThatThrownBy(() -> new RecursiveDescentParser(new AnalysisBudget(0, 5, 0, Duration.ZERO)).analyze(rules))
+				.extracting("limit").isEqualTo("symbols");
+		assertThatThrownBy(() -> new RecursiveDescentParser(new AnalysisBudget(0, 0, 0, Duration.ofNanos(1))).analyze(rules))
+				.extracting("limit").isEqualTo("time");
+		assertThatThrownBy(() -> new RecursiveDescentParser(new AnalysisBudget(0, 0, 3, Duration.ZERO)).analyze(rules))
+				.extracting("limit").isEqualTo("productions");
+		assertThat(new RecursiveDescentParser(new AnalysisBudget(3, 6, 4, Duration.ofSeconds(10))).analyze(rules).isSuccess())
+				.isTrue();
+	}
+
+	@Test
+	void sessionEditOverTheBudgetIsUndone() {
+		GrammarSession session = new GrammarSession("budget", new AnalysisBudget(0, 0, 3, Duration.ZERO),
+				new AnalysisAdmission(1, Duration.ZERO, Duration.ofSeconds(1)), SymbolMode.CHARACTERS);
+		session.load(List.of("S -> aB", "B -> b | c"));
+
+		assertThatThrownBy(() -> session.replaceRule("B -> b | c | d"))
+				.isInstanceOf(AnalysisBudgetExceededException.class);
+		assertThat(session.analysis().first()).containsEntry("B", List.of("b", "c"));
+		assertThat(session.replaceRule("B -> d").first()).containsEntry("B", List.of("d"));
+	}
+
+	@Test
+	void conflictsPastTheReportedOnesAreOnlyCounted() {
+		StringBuilder rule = new StringBuilder("S -> a");
+		for (int i = 0; i < 200; i++) {
+			rule.append(i == 0 ? "" : " | a").append("b".repeat(i + 1));
+		}
+		GrammarAnalysisResult result = new RecursiveDescentParser().analyze(List.of(rule.toString()));
+
+		assertThat(result.message()).isEqualTo("The grammar is not LL(1): 19900 conflict(s) found.");
+		assertThat(result.conflictDetails()).hasSize(RecursiveDescentParser.MAX_REPORTED_CONFLICTS);
+		assertThat(result.conflicts()).hasSize(RecursiveDescentParser.MAX_REPORTED_CONFLICTS + 1)
+				.last().isEqualTo("…and 19800 more conflict(s)");
+	}
+
+	@Test
+	void stepDependenciesAreTransitive() {
+		assertThat(AnalysisStep.withDependencies(EnumSet.of(AnalysisStep.FIRST)))
+				.containsExactly(AnalysisStep.NULLABLE, AnalysisStep.FIRST);
+		assertThat(AnalysisStep.withDependencies(EnumSet.of(AnalysisStep.FOLLOW)))
+				.doesNotContain(AnalysisStep.FIRST, AnalysisStep.SELECT)
+				.contains(AnalysisStep.BDW, AnalysisStep.BW, AnalysisStep.FDB, AnalysisStep.EO, AnalysisStep.FB);
+	}
+
+}